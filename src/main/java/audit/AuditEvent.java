@@ -0,0 +1,36 @@
+package audit;
+
+public enum AuditEvent {
+    CREDIT_REQUESTED((byte) 1, false),
+    DEBIT_REQUESTED((byte) 2, false),
+    CREDIT_POSTED((byte) 3, true),
+    DEBIT_POSTED((byte) 4, true);
+
+    private static final AuditEvent[] BY_CODE = new AuditEvent[5];
+
+    static {
+        for (AuditEvent event : values()) {
+            BY_CODE[event.code] = event;
+        }
+    }
+
+    private final byte code;
+    private final boolean moneyMovement;
+
+    AuditEvent(byte code, boolean moneyMovement) {
+        this.code = code;
+        this.moneyMovement = moneyMovement;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public boolean isMoneyMovement() {
+        return moneyMovement;
+    }
+
+    public static AuditEvent fromCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
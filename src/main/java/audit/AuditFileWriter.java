@@ -0,0 +1,112 @@
+package audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Appends fixed-size audit records to memory-mapped segment files ({@code audit-000001.log}, ...),
+ * rolling to a new segment when the current one is full. Unused space at the end of a segment is
+ * zero-filled, so readers stop at the first record whose type byte is 0.
+ * <pre>
+ * record := long timestampMillis | long walletId | long transactionId | long amount | long balance
+ *           | byte type | byte refLength | ref (ASCII, up to 50 bytes) | padding
+ * </pre>
+ * Amounts and balances are fixed-point with {@link #AMOUNT_SCALE} decimals.
+ */
+@Slf4j
+final class AuditFileWriter implements AuditRingBuffer.RecordSink, AutoCloseable {
+
+    static final int RECORD_SIZE = 96;
+    static final int AMOUNT_SCALE = 4;
+
+    private static final int MAX_REFERENCE_LENGTH = RECORD_SIZE - 42;
+
+    private final Path directory;
+    private final long segmentSize;
+    private int segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    AuditFileWriter(Path directory, long segmentSizeBytes) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(RECORD_SIZE, segmentSizeBytes / RECORD_SIZE * RECORD_SIZE);
+        Files.createDirectories(directory);
+        this.segmentNumber = lastSegmentNumber();
+        roll();
+    }
+
+    @Override
+    public void accept(long timestamp, byte type, long walletId, long transactionId,
+                       long amount, long balance, String referenceId) {
+        try {
+            if (buffer.remaining() < RECORD_SIZE) {
+                roll();
+            }
+        } catch (IOException e) {
+            // Never lose the record: fall back to the application log if the segment cannot be mapped
+            log.error("Audit segment roll failed, record written to log: type={}, walletId={}, transactionId={}, "
+                            + "referenceId={}, amount={}, balance={}",
+                    AuditEvent.fromCode(type), walletId, transactionId, referenceId, amount, balance, e);
+            return;
+        }
+
+        int start = buffer.position();
+        buffer.putLong(timestamp)
+                .putLong(walletId)
+                .putLong(transactionId)
+                .putLong(amount)
+                .putLong(balance)
+                .put(type);
+
+        if (referenceId == null) {
+            buffer.put((byte) 0);
+        } else {
+            int length = Math.min(referenceId.length(), MAX_REFERENCE_LENGTH);
+            buffer.put((byte) length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) referenceId.charAt(i));
+            }
+        }
+        buffer.position(start + RECORD_SIZE);
+    }
+
+    void flush() {
+        buffer.force();
+    }
+
+    private void roll() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            channel.close();
+        }
+        segmentNumber++;
+        Path segment = directory.resolve(String.format("audit-%06d.log", segmentNumber));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        log.info("Audit log rolled to {}", segment);
+    }
+
+    private int lastSegmentNumber() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("audit-\\d{6}\\.log"))
+                    .mapToInt(name -> Integer.parseInt(name.substring(6, 12)))
+                    .max()
+                    .orElse(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
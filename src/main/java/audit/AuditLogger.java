@@ -0,0 +1,197 @@
+package audit;
+
+import config.AuditProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hot-path entry point for the audit pipeline. Callers only copy a handful of primitives into the
+ * ring; encoding and file I/O happen on a dedicated writer thread.
+ * <p>
+ * Money movements are never dropped: when the ring is full the caller waits for space, and if the
+ * pipeline is unavailable the record is written synchronously to the application log instead.
+ * Debug events are sampled and dropped when the ring is full.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogger {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long NO_VALUE = 0L;
+
+    private final AuditProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private AuditRingBuffer ring;
+    private AuditFileWriter fileWriter;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Counter moneyRecords;
+    private Counter debugRecords;
+    private Counter droppedRecords;
+    private Counter backpressureWaits;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        ring = new AuditRingBuffer(properties.getRingSize());
+        fileWriter = new AuditFileWriter(Paths.get(properties.getDirectory()), properties.getSegmentSizeBytes());
+
+        moneyRecords = Counter.builder("ewallet.audit.records").tag("level", "money").register(meterRegistry);
+        debugRecords = Counter.builder("ewallet.audit.records").tag("level", "debug").register(meterRegistry);
+        droppedRecords = Counter.builder("ewallet.audit.dropped").register(meterRegistry);
+        backpressureWaits = Counter.builder("ewallet.audit.backpressure").register(meterRegistry);
+        Gauge.builder("ewallet.audit.ring.depth", ring, AuditRingBuffer::depth).register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::writeLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public void moneyMovement(AuditEvent event, Long walletId, Long transactionId, String referenceId,
+                              BigDecimal amount, BigDecimal balanceAfter) {
+        long sequence = running ? ring.tryClaim() : -1;
+        while (sequence < 0 && running) {
+            backpressureWaits.increment();
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+            sequence = ring.tryClaim();
+        }
+
+        if (sequence < 0) {
+            log.info("Audit {}: walletId={}, transactionId={}, referenceId={}, amount={}, balanceAfter={}",
+                    event, walletId, transactionId, referenceId, amount, balanceAfter);
+            return;
+        }
+
+        ring.publish(sequence, System.currentTimeMillis(), event.getCode(), walletId, transactionId,
+                toUnscaled(amount), toUnscaled(balanceAfter), referenceId);
+        moneyRecords.increment();
+    }
+
+    /**
+     * Records a money movement once the surrounding transaction commits, so postings that roll back or
+     * are retried leave no record. Outside a transaction the record is written immediately.
+     */
+    public void moneyMovementAfterCommit(AuditEvent event, Long walletId, Long transactionId, String referenceId,
+                                         BigDecimal amount, BigDecimal balanceAfter) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            moneyMovement(event, walletId, transactionId, referenceId, amount, balanceAfter);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                moneyMovement(event, walletId, transactionId, referenceId, amount, balanceAfter);
+            }
+        });
+    }
+
+    public void debug(AuditEvent event, Long walletId, String referenceId) {
+        if (!running || ThreadLocalRandom.current().nextDouble() >= properties.getDebugSampleRate()) {
+            return;
+        }
+
+        long sequence = ring.tryClaim();
+        if (sequence < 0) {
+            droppedRecords.increment();
+            return;
+        }
+
+        ring.publish(sequence, System.currentTimeMillis(), event.getCode(), walletId, NO_VALUE,
+                NO_VALUE, NO_VALUE, referenceId);
+        debugRecords.increment();
+    }
+
+    private void writeLoop() {
+        long lastFlush = System.currentTimeMillis();
+        AuditRingBuffer.RecordSink sink = fileWriter;
+        try {
+            while (running) {
+                int drained = ring.drain(fileWriter);
+                long now = System.currentTimeMillis();
+                if (now - lastFlush >= properties.getFlushIntervalMs()) {
+                    fileWriter.flush();
+                    lastFlush = now;
+                }
+                if (drained == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } catch (Throwable t) {
+            log.error("Audit writer failed, money movements fall back to the application log", t);
+            sink = AuditLogger::logRecord;
+        } finally {
+            // Producers fall back to the application log once running is false or the ring is closed. Closing
+            // fixes the set of claimed records, so a producer that saw running just before it flipped is
+            // either drained below or rejected and logs synchronously
+            running = false;
+            ring.close();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (ring.depth() > 0 && System.nanoTime() < deadline) {
+                if (drainQuietly(sink) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            try {
+                fileWriter.close();
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to close audit log", e);
+            }
+        }
+    }
+
+    // A sink failing during shutdown must not strand the remaining records, so they go to the log instead
+    private int drainQuietly(AuditRingBuffer.RecordSink sink) {
+        try {
+            return ring.drain(sink);
+        } catch (RuntimeException e) {
+            log.error("Audit writer failed while draining, remaining records go to the application log", e);
+            return ring.drain(AuditLogger::logRecord);
+        }
+    }
+
+    private static void logRecord(long timestamp, byte type, long walletId, long transactionId,
+                                  long amount, long balance, String referenceId) {
+        log.info("Audit {}: timestamp={}, walletId={}, transactionId={}, referenceId={}, amount={}, balanceAfter={}",
+                AuditEvent.fromCode(type), timestamp, walletId, transactionId, referenceId,
+                BigDecimal.valueOf(amount, AuditFileWriter.AMOUNT_SCALE),
+                BigDecimal.valueOf(balance, AuditFileWriter.AMOUNT_SCALE));
+    }
+
+    private static long toUnscaled(BigDecimal value) {
+        return value != null
+                ? value.setScale(AuditFileWriter.AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue()
+                : NO_VALUE;
+    }
+}
@@ -0,0 +1,138 @@
+package audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Multi-producer, single-consumer ring of fixed-layout audit records held in parallel primitive
+ * arrays, so publishing allocates nothing. Producers claim a sequence with a CAS, fill the slot and
+ * publish it by writing the sequence into {@code published}; the consumer reads slots strictly in
+ * sequence order.
+ */
+final class AuditRingBuffer {
+
+    private static final long CLOSED = Long.MAX_VALUE;
+
+    private final int capacity;
+    private final int mask;
+
+    private final long[] timestamps;
+    private final byte[] types;
+    private final long[] walletIds;
+    private final long[] transactionIds;
+    private final long[] amounts;
+    private final long[] balances;
+    private final String[] referenceIds;
+    private final AtomicLongArray published;
+
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private volatile long consumed = -1;
+    private volatile long lastClaimed = -1;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.timestamps = new long[capacity];
+        this.types = new byte[capacity];
+        this.walletIds = new long[capacity];
+        this.transactionIds = new long[capacity];
+        this.amounts = new long[capacity];
+        this.balances = new long[capacity];
+        this.referenceIds = new String[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * @return the claimed sequence, or -1 if the ring is full or closed
+     */
+    long tryClaim() {
+        while (true) {
+            long current = claimed.get();
+            if (current == CLOSED) {
+                return -1;
+            }
+            long next = current + 1;
+            if (next - capacity > consumed) {
+                return -1;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    void publish(long sequence, long timestamp, byte type, long walletId, long transactionId,
+                 long amount, long balance, String referenceId) {
+        int index = (int) (sequence & mask);
+        timestamps[index] = timestamp;
+        types[index] = type;
+        walletIds[index] = walletId;
+        transactionIds[index] = transactionId;
+        amounts[index] = amount;
+        balances[index] = balance;
+        referenceIds[index] = referenceId;
+        published.set(index, sequence);
+    }
+
+    /**
+     * Hands every contiguous published record to the sink. Must only be called from the consumer thread.
+     *
+     * @return the number of records drained
+     */
+    int drain(RecordSink sink) {
+        long next = consumed + 1;
+        int count = 0;
+        while (true) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            sink.accept(timestamps[index], types[index], walletIds[index], transactionIds[index],
+                    amounts[index], balances[index], referenceIds[index]);
+            referenceIds[index] = null;
+            // Release the slot immediately so producers blocked on a full ring can proceed
+            consumed = next;
+            next++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Rejects all further claims. A producer racing with this either claimed before it, and its record is
+     * counted in {@link #depth()}, or fails its CAS and sees the ring closed. Must only be called from the
+     * consumer thread.
+     *
+     * @return the last sequence claimed before the ring closed
+     */
+    long close() {
+        while (true) {
+            long current = claimed.get();
+            if (current == CLOSED) {
+                return lastClaimed;
+            }
+            // Written before the CAS so any reader that sees CLOSED also sees the final claim
+            lastClaimed = current;
+            if (claimed.compareAndSet(current, CLOSED)) {
+                return current;
+            }
+        }
+    }
+
+    long depth() {
+        long current = claimed.get();
+        return (current == CLOSED ? lastClaimed : current) - consumed;
+    }
+
+    @FunctionalInterface
+    interface RecordSink {
+        void accept(long timestamp, byte type, long walletId, long transactionId,
+                    long amount, long balance, String referenceId);
+    }
+}
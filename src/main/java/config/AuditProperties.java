@@ -0,0 +1,25 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.audit")
+@Data
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    private String directory = "audit-logs";
+
+    // Must be a power of two
+    private int ringSize = 65536;
+
+    private long segmentSizeBytes = 64L * 1024 * 1024;
+
+    private long flushIntervalMs = 1000;
+
+    // Fraction of debug-level events (request received etc.) that are recorded; money movements are always recorded
+    private double debugSampleRate = 0.01;
+}
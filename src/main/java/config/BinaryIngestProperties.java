@@ -0,0 +1,23 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.binary-ingest")
+@Data
+public class BinaryIngestProperties {
+
+    private boolean enabled = false;
+
+    private int port = 9090;
+
+    // Ledger calls block on JDBC, so they run on a worker pool rather than the selector thread
+    private int workerThreads = 64;
+
+    private int maxFrameSize = 4096;
+
+    // Reading from a connection pauses while this many requests are outstanding on it
+    private int maxInFlightPerConnection = 1024;
+}
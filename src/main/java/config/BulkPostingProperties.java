@@ -0,0 +1,19 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.posting")
+@Data
+public class BulkPostingProperties {
+
+    // Width of each wallet id range posted in one transaction
+    private int chunkSize = 10000;
+
+    private int parallelism = 8;
+
+    // Throttle across all workers to protect online traffic; 0 disables it
+    private int maxChunksPerSecond = 50;
+}
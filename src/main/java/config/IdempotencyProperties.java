@@ -0,0 +1,16 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.idempotency")
+@Data
+public class IdempotencyProperties {
+
+    // Daily buckets kept in addition to the current one; older partitions are dropped
+    private int retentionDays = 2;
+
+    private int partitionsAhead = 2;
+}
@@ -0,0 +1,20 @@
+package config;
+
+import journal.CreditJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@ConditionalOnProperty(prefix = "ewallet.journal", name = "enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public CreditJournal creditJournal(JournalProperties properties) throws IOException {
+        return new CreditJournal(Paths.get(properties.getDirectory()), properties.getSegmentSizeBytes(),
+                properties.getSyncIntervalMs());
+    }
+}
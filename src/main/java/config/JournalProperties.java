@@ -0,0 +1,29 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.journal")
+@Data
+public class JournalProperties {
+
+    // Accept credits into a local journal while the database is unavailable
+    private boolean enabled = false;
+
+    private String directory = "credit-journal";
+
+    private long segmentSizeBytes = 64L * 1024 * 1024;
+
+    // Group-commit window: appends arriving within it share one fsync
+    private long syncIntervalMs = 2;
+
+    private long replayIntervalMs = 5000;
+
+    // Credits switch to the journal once a SELECT 1 fails or takes longer than the timeout, instead of after a
+    // credit has waited out the pool's connection-timeout
+    private long probeIntervalMs = 1000;
+
+    private long probeTimeoutMs = 500;
+}
@@ -0,0 +1,32 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+@ConfigurationProperties("ewallet.velocity")
+@Data
+public class VelocityLimitProperties {
+
+    // Per-wallet debit limits over sliding windows; a zero limit is not enforced
+    private boolean enabled = false;
+
+    private BigDecimal hourlyAmount = new BigDecimal("10000");
+
+    private int hourlyCount = 20;
+
+    private BigDecimal dailyAmount = new BigDecimal("50000");
+
+    private int dailyCount = 100;
+
+    // Power of two; wallets are spread over this many independently locked tables
+    private int stripes = 64;
+
+    private long evictionIntervalMs = 600000;
+
+    // How often settled five-minute buckets are replaced with every instance's debits from the ledger
+    private long reconcileIntervalMs = 60000;
+}
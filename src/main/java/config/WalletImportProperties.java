@@ -0,0 +1,16 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.import")
+@Data
+public class WalletImportProperties {
+
+    // Rows held in memory per insert round trip; bounds heap usage for arbitrarily large files
+    private int batchSize = 10000;
+
+    private String resultDir = "import-results";
+}
@@ -0,0 +1,19 @@
+package config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("ewallet.tiering")
+@Data
+public class WalletTieringProperties {
+
+    private boolean enabled = false;
+
+    // Wallets without a balance change for this long are moved to the cold tier; CLOSED wallets always are
+    private int dormantDays = 180;
+
+    // Wallets moved per transaction
+    private int batchSize = 5000;
+}
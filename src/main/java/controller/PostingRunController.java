@@ -0,0 +1,43 @@
+package controller;
+
+import dto.ApiResponse;
+import dto.PostingRunRequest;
+import dto.PostingRunResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import service.BulkPostingService;
+
+@RestController
+@RequestMapping("/api/v1/posting-runs")
+@RequiredArgsConstructor
+@Slf4j
+public class PostingRunController {
+
+    private final BulkPostingService bulkPostingService;
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<PostingRunResponse>> startRun(
+            @Valid @RequestBody PostingRunRequest request) {
+        log.info("Received request to start posting run: runId={}, type={}",
+                request.getRunId(), request.getPostingType());
+
+        PostingRunResponse response = bulkPostingService.startRun(request);
+
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Posting run accepted", response));
+    }
+
+    @GetMapping("/{runId}")
+    public ResponseEntity<ApiResponse<PostingRunResponse>> getRun(@PathVariable String runId) {
+        log.info("Received request to get posting run: runId={}", runId);
+
+        PostingRunResponse response = bulkPostingService.getRun(runId);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+}
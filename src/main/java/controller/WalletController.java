@@ -1,17 +1,27 @@
 package controller;
 
 import dto.*;
+import entity.WalletTransaction;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import service.StatementService;
+import service.WalletAggregateService;
 import service.WalletService;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
 @RestController
 @RequestMapping("/api/v1/wallets")
 @RequiredArgsConstructor
@@ -19,6 +29,8 @@ import service.WalletService;
 public class WalletController {
 
     private final WalletService walletService;
+    private final WalletAggregateService aggregateService;
+    private final StatementService statementService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<WalletResponse>> createWallet(
@@ -46,17 +58,23 @@ public class WalletController {
     public ResponseEntity<ApiResponse<TransactionResponse>> creditWallet(
             @PathVariable Long walletId,
             @Valid @RequestBody TransactionRequest request) {
-        log.info("Received request to credit wallet: walletId={}, referenceId={}",
+        log.debug("Received request to credit wallet: walletId={}, referenceId={}",
                 walletId, request.getReferenceId());
 
         TransactionResponse response = walletService.creditWallet(walletId, request);
 
+        if (WalletTransaction.TransactionStatus.PENDING.name().equals(response.getStatus())) {
+            return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Credit accepted for processing", response));
+        }
+
         return ResponseEntity.ok(ApiResponse.success("Credit successful", response));
     }@PostMapping("/{walletId}/debit")
     public ResponseEntity<ApiResponse<TransactionResponse>> debitWallet(
             @PathVariable Long walletId,
             @Valid @RequestBody TransactionRequest request) {
-        log.info("Received request to debit wallet: walletId={}, referenceId={}",
+        log.debug("Received request to debit wallet: walletId={}, referenceId={}",
                 walletId, request.getReferenceId());
 
         TransactionResponse response = walletService.debitWallet(walletId, request);
@@ -78,6 +96,49 @@ public class WalletController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    @GetMapping("/{walletId}/aggregates")
+    public ResponseEntity<ApiResponse<WalletAggregateResponse>> getAggregates(
+            @PathVariable Long walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Received request to get wallet aggregates: walletId={}, from={}, to={}",
+                walletId, from, to);
+
+        WalletAggregateResponse response = aggregateService.getAggregates(walletId, from, to);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/{walletId}/balance-at")
+    public ResponseEntity<ApiResponse<BalanceAtResponse>> getBalanceAt(
+            @PathVariable Long walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        log.info("Received request to get point-in-time balance: walletId={}, at={}", walletId, at);
+
+        BalanceAtResponse response = statementService.getBalanceAt(walletId, at);
+
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping(value = "/{walletId}/statement", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> getStatement(
+            @PathVariable Long walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Received request to generate statement: walletId={}, from={}, to={}", walletId, from, to);
+
+        // Validate before streaming starts so errors still map to ApiResponse bodies
+        statementService.validateStatementRequest(walletId, from, to);
+
+        StreamingResponseBody body = output -> statementService.writeStatement(walletId, from, to, output);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-" + walletId + "-" + from + "-" + to + ".csv\"")
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
 
 
 }
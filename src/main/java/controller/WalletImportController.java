@@ -0,0 +1,40 @@
+package controller;
+
+import dto.ApiResponse;
+import dto.WalletImportResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import service.WalletImportService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/wallets")
+@RequiredArgsConstructor
+@Slf4j
+public class WalletImportController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final WalletImportService walletImportService;
+
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON})
+    public ResponseEntity<ApiResponse<WalletImportResponse>> importWallets(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        log.info("Received request to import wallets: contentType={}", contentType);
+
+        WalletImportService.ImportFormat format = MediaType.parseMediaType(contentType)
+                .isCompatibleWith(MediaType.parseMediaType(NDJSON))
+                ? WalletImportService.ImportFormat.NDJSON
+                : WalletImportService.ImportFormat.CSV;
+
+        WalletImportResponse response = walletImportService.importWallets(body, format);
+
+        return ResponseEntity.ok(ApiResponse.success("Wallet import completed", response));
+    }
+}
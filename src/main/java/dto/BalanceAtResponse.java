@@ -0,0 +1,23 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceAtResponse {
+
+    private Long walletId;
+    private LocalDateTime at;
+    private BigDecimal balance;
+    private String currency;
+    private Long lastTransactionId;
+    private LocalDateTime lastTransactionAt;
+}
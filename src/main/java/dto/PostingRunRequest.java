@@ -0,0 +1,40 @@
+package dto;
+
+import entity.PostingRun;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostingRunRequest {
+
+    // Reference ids are "<runId>:<walletId>", which must fit the 50 character reference_id column
+    @NotBlank(message = "Run ID is required")
+    @Pattern(regexp = "^[A-Za-z0-9_-]{1,30}$", message = "Run ID must be 1-30 letters, digits, '-' or '_'")
+    private String runId;
+
+    @NotNull(message = "Posting type is required")
+    private PostingRun.PostingType postingType;
+
+    @NotBlank(message = "Currency is required")
+    @Pattern(regexp = "^[A-Z]{3}$", message = "Currency must be a 3-letter ISO code")
+    private String currency;
+
+    @DecimalMin(value = "0.0001", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    @DecimalMin(value = "0", inclusive = false, message = "Rate must be greater than 0")
+    private BigDecimal rate;
+
+    private String description;
+}
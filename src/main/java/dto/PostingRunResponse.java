@@ -0,0 +1,47 @@
+package dto;
+
+import entity.PostingRun;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostingRunResponse {
+
+    private String runId;
+    private String postingType;
+    private String currency;
+    private BigDecimal amount;
+    private BigDecimal rate;
+    private String status;
+    private Long chunksTotal;
+    private long chunksCompleted;
+    private long walletsPosted;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    public static PostingRunResponse fromEntity(PostingRun run, long chunksCompleted, long walletsPosted) {
+        return PostingRunResponse.builder()
+                .runId(run.getRunId())
+                .postingType(run.getPostingType().name())
+                .currency(run.getCurrency())
+                .amount(run.getAmount())
+                .rate(run.getRate())
+                .status(run.getStatus().name())
+                .chunksTotal(run.getChunksTotal())
+                .chunksCompleted(chunksCompleted)
+                .walletsPosted(walletsPosted)
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .completedAt(run.getCompletedAt())
+                .build();
+    }
+}
@@ -3,12 +3,14 @@ package dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
@@ -23,5 +25,10 @@ public class TransactionRequest {
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
     private BigDecimal amount;
 
+    @Size(max = 500, message = "Description must be at most 500 characters")
     private String description;
+
+    // Optional time of the first attempt; retries older than the idempotency retention window are
+    // checked against the ledger instead of the key store
+    private Instant requestedAt;
 }
@@ -0,0 +1,28 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletAggregateResponse {
+
+    private Long walletId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private BigDecimal creditTotal;
+    private BigDecimal debitTotal;
+    private BigDecimal netChange;
+    private long creditCount;
+    private long debitCount;
+    private long transactionCount;
+    private BigDecimal minBalance;
+    private BigDecimal maxBalance;
+}
@@ -0,0 +1,21 @@
+package dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletImportResponse {
+
+    private String importId;
+    private long totalRows;
+    private long createdCount;
+    private long skippedCount;
+    private long failedCount;
+    private String resultFile;
+    private long durationMs;
+}
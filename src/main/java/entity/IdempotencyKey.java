@@ -0,0 +1,64 @@
+package entity;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 128-bit hash of a transaction referenceId, stored in a table list-partitioned by daily bucket
+ * (days since epoch, UTC) so expired buckets can be dropped as whole partitions:
+ * <pre>
+ * CREATE TABLE idempotency_keys (
+ *     bucket integer NOT NULL, key_high bigint NOT NULL, key_low bigint NOT NULL,
+ *     transaction_id bigint NOT NULL, created_at timestamp NOT NULL,
+ *     PRIMARY KEY (key_high, key_low, bucket)
+ * ) PARTITION BY LIST (bucket);
+ * </pre>
+ * Partitions are created and dropped by {@code IdempotencyServiceImpl}. Postgres cannot put a unique
+ * index without the partition key on a partitioned table, so uniqueness across the retained buckets is
+ * enforced by {@code IdempotencyServiceImpl.record} under a per-key advisory lock; the store is then
+ * authoritative for the retention window and the ledger is only read for older requests.
+ * <p>
+ * Bulk posting runs check this table too, skipping any wallet whose {@code <runId>:<walletId>} key is
+ * already retained; a rerun after the keys have expired is stopped by the claimed chunk in
+ * {@code posting_run_chunks} instead. The ledger's reference_id index is therefore no longer unique.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "key_high", nullable = false)
+        private Long keyHigh;
+
+        @Column(name = "key_low", nullable = false)
+        private Long keyLow;
+
+        @Column(nullable = false)
+        private Integer bucket;
+    }
+}
@@ -0,0 +1,56 @@
+package entity;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A journaled credit that was acknowledged to the client as PENDING but rejected when replayed, kept
+ * for reconciliation. One row per referenceId, so a replay repeated after a crash adds nothing.
+ */
+@Entity
+@Table(name = "journal_dead_letters", indexes = {
+        @Index(name = "idx_journal_dead_letter_reference_id", columnList = "reference_id", unique = true),
+        @Index(name = "idx_journal_dead_letter_resolved", columnList = "resolved")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JournalDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "journal_sequence", nullable = false)
+    private Long journalSequence;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(name = "reference_id", nullable = false, length = 50)
+    private String referenceId;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(name = "journaled_at", nullable = false)
+    private LocalDateTime journaledAt;
+
+    @Column(nullable = false, length = 500)
+    private String reason;
+
+    @Column(nullable = false)
+    private Boolean resolved;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,72 @@
+package entity;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "posting_runs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostingRun {
+
+    @Id
+    @Column(name = "run_id", length = 30)
+    private String runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "posting_type", nullable = false, length = 20)
+    private PostingType postingType;
+
+    @Column(length = 3, nullable = false)
+    private String currency;
+
+    @Column(precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(precision = 19, scale = 10)
+    private BigDecimal rate;
+
+    @Column(length = 500)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PostingStatus status;
+
+    @Column(name = "chunks_total")
+    private Long chunksTotal;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum PostingType {
+        FEE,
+        INTEREST
+    }
+
+    public enum PostingStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,45 @@
+package entity;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "posting_run_chunks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostingRunChunk {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "chunk_end", nullable = false)
+    private Long chunkEnd;
+
+    @Column(name = "posted_count", nullable = false)
+    private Long postedCount;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "run_id", length = 30, nullable = false)
+        private String runId;
+
+        @Column(name = "chunk_start", nullable = false)
+        private Long chunkStart;
+    }
+}
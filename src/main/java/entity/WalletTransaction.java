@@ -16,8 +16,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "wallet_transactions", indexes = {
-        @Index(name = "idx_transaction_wallet_id", columnList = "wallet_id"),
-        @Index(name = "idx_transaction_reference_id", columnList = "reference_id", unique = true),
+        @Index(name = "idx_transaction_wallet_created_at", columnList = "wallet_id, created_at"),
+        @Index(name = "idx_transaction_reference_id", columnList = "reference_id"),
         @Index(name = "idx_transaction_created_at", columnList = "created_at"),
         @Index(name = "idx_transaction_type", columnList = "transaction_type")
 })
@@ -36,7 +36,18 @@ public class WalletTransaction {
     @Column(name = "wallet_id", nullable = false)
     private Long walletId;
 
-    @Column(name = "reference_id", nullable = false, unique = true, length = 50)
+    /**
+     * Unique through {@link IdempotencyKey}, for online writes and bulk runs alike. The ledger only keeps a
+     * lookup index for retries the key store cannot answer, as a hash index that stores a 4-byte code per row
+     * rather than the reference itself. Replacing the former unique index (the constraint name is the one
+     * Postgres generated for the column):
+     * <pre>
+     * ALTER TABLE wallet_transactions DROP CONSTRAINT IF EXISTS wallet_transactions_reference_id_key;
+     * DROP INDEX IF EXISTS idx_transaction_reference_id;
+     * CREATE INDEX CONCURRENTLY idx_transaction_reference_id ON wallet_transactions USING hash (reference_id);
+     * </pre>
+     */
+    @Column(name = "reference_id", nullable = false, length = 50)
     private String referenceId;
 
     @Enumerated(EnumType.STRING)
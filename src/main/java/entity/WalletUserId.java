@@ -0,0 +1,34 @@
+package entity;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registry of every user_id that owns a wallet, in either the hot or the cold tier. Wallet creation
+ * claims the user_id here first, so uniqueness holds across tiers without racing against archive or
+ * rehydration moves. Backfill before enabling tiering:
+ * <pre>
+ * INSERT INTO wallet_user_ids (user_id, created_at)
+ * SELECT user_id, created_at FROM wallets UNION ALL SELECT user_id, created_at FROM wallets_cold
+ * ON CONFLICT DO NOTHING;
+ * </pre>
+ */
+@Entity
+@Table(name = "wallet_user_ids")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletUserId {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,6 +2,6 @@ package exception;
 
 public class DuplicateTransactionException extends RuntimeException {
     public DuplicateTransactionException(String message) {
-
+        super(message);
     }
 }
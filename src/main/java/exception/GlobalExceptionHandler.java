@@ -25,6 +25,14 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(PostingRunNotFoundException.class)
+    public ResponseEntity<ApiResponse<Void>> handlePostingRunNotFound(PostingRunNotFoundException ex) {
+        log.error("Posting run not found: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(InsufficientBalanceException.class)
     public ResponseEntity<ApiResponse<Void>> handleInsufficientBalance(InsufficientBalanceException ex) {
         log.error("Insufficient balance: {}", ex.getMessage());
@@ -33,6 +41,14 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(VelocityLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleVelocityLimitExceeded(VelocityLimitExceededException ex) {
+        log.warn("Velocity limit exceeded: {}", ex.getMessage());
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(DuplicateTransactionException.class)
     public ResponseEntity<ApiResponse<Void>> handleDuplicateTransaction(DuplicateTransactionException ex) {
         log.error("Duplicate transaction: {}", ex.getMessage());
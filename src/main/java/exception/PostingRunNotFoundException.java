@@ -0,0 +1,7 @@
+package exception;
+
+public class PostingRunNotFoundException extends RuntimeException {
+    public PostingRunNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,132 @@
+package ingest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipelining client for {@link BinaryIngestServer}. Requests are written immediately and
+ * completed from a single reader thread as responses arrive, so callers can keep many
+ * requests outstanding on one connection. Thread-safe.
+ */
+@Slf4j
+public class BinaryIngestClient implements AutoCloseable {
+
+    private final SocketChannel channel;
+    private final Map<Long, CompletableFuture<BinaryResponse>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong correlationIds = new AtomicLong();
+    private final Object writeLock = new Object();
+    private final Thread reader;
+    private volatile boolean closed;
+
+    public BinaryIngestClient(String host, int port) {
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(host, port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to connect to " + host + ":" + port, e);
+        }
+        reader = new Thread(this::readLoop, "binary-ingest-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public CompletableFuture<BinaryResponse> credit(long walletId, BigDecimal amount, String referenceId,
+                                                    String description) {
+        long correlationId = correlationIds.incrementAndGet();
+        return send(correlationId, BinaryProtocol.encodeTransactionRequest(
+                BinaryProtocol.OP_CREDIT, correlationId, walletId, amount, referenceId, description));
+    }
+
+    public CompletableFuture<BinaryResponse> debit(long walletId, BigDecimal amount, String referenceId,
+                                                   String description) {
+        long correlationId = correlationIds.incrementAndGet();
+        return send(correlationId, BinaryProtocol.encodeTransactionRequest(
+                BinaryProtocol.OP_DEBIT, correlationId, walletId, amount, referenceId, description));
+    }
+
+    public CompletableFuture<BinaryResponse> balance(long walletId) {
+        long correlationId = correlationIds.incrementAndGet();
+        return send(correlationId, BinaryProtocol.encodeBalanceRequest(correlationId, walletId));
+    }
+
+    private CompletableFuture<BinaryResponse> send(long correlationId, ByteBuffer frame) {
+        CompletableFuture<BinaryResponse> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("Client is closed"));
+            return future;
+        }
+
+        pending.put(correlationId, future);
+        try {
+            synchronized (writeLock) {
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException e) {
+            pending.remove(correlationId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void readLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= BinaryProtocol.LENGTH_PREFIX) {
+                    int length = buffer.getInt(buffer.position());
+                    if (buffer.remaining() < BinaryProtocol.LENGTH_PREFIX + length) {
+                        break;
+                    }
+                    int frameEnd = buffer.position() + BinaryProtocol.LENGTH_PREFIX + length;
+                    buffer.position(buffer.position() + BinaryProtocol.LENGTH_PREFIX);
+                    BinaryResponse response = BinaryProtocol.decodeResponse(buffer);
+                    buffer.position(frameEnd);
+
+                    CompletableFuture<BinaryResponse> future = pending.remove(response.getCorrelationId());
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+                buffer.compact();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("Binary ingest connection failed: {}", e.getMessage());
+            }
+        } finally {
+            failPending(new IOException("Connection closed"));
+        }
+    }
+
+    private void failPending(IOException cause) {
+        pending.values().forEach(future -> future.completeExceptionally(cause));
+        pending.clear();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+            reader.join(1000);
+        } catch (IOException e) {
+            log.debug("Failed to close binary ingest client", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package ingest;
+
+import config.BinaryIngestProperties;
+import dto.TransactionRequest;
+import dto.TransactionResponse;
+import dto.WalletResponse;
+import entity.WalletTransaction;
+import exception.InsufficientBalanceException;
+import exception.VelocityLimitExceededException;
+import exception.WalletNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import service.WalletService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional NIO listener for partner batch traffic using {@link BinaryProtocol} framing.
+ * A single selector thread owns all socket I/O; requests are dispatched to a worker pool and
+ * responses are written back as they complete, so many requests can be in flight per connection
+ * and responses may arrive out of order (clients match them by correlation id).
+ */
+@Component
+@ConditionalOnProperty(prefix = "ewallet.binary-ingest", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BinaryIngestServer implements SmartLifecycle {
+
+    private static final int MAX_GATHER = 64;
+    // Same limits as the REST TransactionRequest and the ledger columns
+    private static final int MAX_REFERENCE_LENGTH = 50;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+    private static final long MIN_UNSCALED_AMOUNT = BinaryProtocol.toUnscaled(new BigDecimal("0.01"));
+
+    private final WalletService walletService;
+    private final BinaryIngestProperties properties;
+
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ExecutorService workers;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(new InetSocketAddress(properties.getPort()));
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start binary ingest listener", e);
+        }
+
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "binary-ingest-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        running = true;
+        selectorThread = new Thread(this::selectLoop, "binary-ingest-selector");
+        selectorThread.start();
+        log.info("Binary ingest listener started on port {}", properties.getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            workers.shutdown();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Binary ingest listener stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void selectLoop() {
+        try {
+            while (running) {
+                selector.select();
+                drainPendingWrites();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(connection);
+                            }
+                        }
+                    } catch (IOException e) {
+                        log.warn("Closing binary ingest connection: {}", e.getMessage());
+                        close(key);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Binary ingest selector failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Failed to close selector", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        int bufferSize = Math.max(64 * 1024, BinaryProtocol.LENGTH_PREFIX + properties.getMaxFrameSize());
+        Connection connection = new Connection(channel, ByteBuffer.allocate(bufferSize));
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (connection.channel.read(buffer) < 0) {
+            close(connection.key);
+            return;
+        }
+
+        buffer.flip();
+        while (buffer.remaining() >= BinaryProtocol.LENGTH_PREFIX) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > properties.getMaxFrameSize()) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (buffer.remaining() < BinaryProtocol.LENGTH_PREFIX + length) {
+                break;
+            }
+
+            int frameEnd = buffer.position() + BinaryProtocol.LENGTH_PREFIX + length;
+            int limit = buffer.limit();
+            buffer.position(buffer.position() + BinaryProtocol.LENGTH_PREFIX).limit(frameEnd);
+            BinaryRequest request;
+            try {
+                request = BinaryProtocol.decodeRequest(buffer);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Malformed frame", e);
+            } finally {
+                buffer.limit(limit).position(frameEnd);
+            }
+            dispatch(connection, request);
+        }
+        buffer.compact();
+
+        if (connection.inFlight.get() >= properties.getMaxInFlightPerConnection()) {
+            connection.readPaused = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    private void dispatch(Connection connection, BinaryRequest request) {
+        connection.inFlight.incrementAndGet();
+        workers.execute(() -> connection.enqueue(handle(request)));
+    }
+
+    private ByteBuffer handle(BinaryRequest request) {
+        long correlationId = request.getCorrelationId();
+        try {
+            switch (request.getOpcode()) {
+                case BinaryProtocol.OP_CREDIT, BinaryProtocol.OP_DEBIT -> {
+                    String rejection = validate(request);
+                    if (rejection != null) {
+                        return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_REJECTED, rejection);
+                    }
+                    TransactionRequest transactionRequest = TransactionRequest.builder()
+                            .referenceId(request.getReferenceId())
+                            .amount(request.getAmount())
+                            .description(request.getDescription())
+                            .build();
+                    TransactionResponse response = request.getOpcode() == BinaryProtocol.OP_CREDIT
+                            ? walletService.creditWallet(request.getWalletId(), transactionRequest)
+                            : walletService.debitWallet(request.getWalletId(), transactionRequest);
+                    // Journaled credits (database unavailable) have no transaction or balance yet
+                    if (WalletTransaction.TransactionStatus.PENDING.name().equals(response.getStatus())) {
+                        return BinaryProtocol.encodeAccepted(correlationId);
+                    }
+                    return BinaryProtocol.encodeOk(correlationId, response.getTransactionId(),
+                            response.getBalanceAfter());
+                }
+                case BinaryProtocol.OP_BALANCE -> {
+                    WalletResponse response = walletService.getWalletBalance(request.getWalletId());
+                    return BinaryProtocol.encodeOk(correlationId, BinaryProtocol.NO_TRANSACTION,
+                            response.getBalance());
+                }
+                default -> {
+                    return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_REJECTED,
+                            "Unknown opcode: " + request.getOpcode());
+                }
+            }
+        } catch (WalletNotFoundException e) {
+            return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_NOT_FOUND, e.getMessage());
+        } catch (InsufficientBalanceException e) {
+            return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_INSUFFICIENT_BALANCE, e.getMessage());
+        } catch (VelocityLimitExceededException | IllegalStateException | IllegalArgumentException e) {
+            return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_REJECTED, e.getMessage());
+        } catch (Exception e) {
+            log.error("Unexpected error processing binary request: correlationId={}", correlationId, e);
+            return BinaryProtocol.encodeError(correlationId, BinaryProtocol.STATUS_ERROR,
+                    "An unexpected error occurred");
+        }
+    }
+
+    // Mirrors the bean validation constraints on TransactionRequest
+    private static String validate(BinaryRequest request) {
+        if (request.getReferenceId() == null || request.getReferenceId().isBlank()) {
+            return "Reference ID is required";
+        }
+        if (request.getReferenceId().length() > MAX_REFERENCE_LENGTH) {
+            return "Reference ID must be at most " + MAX_REFERENCE_LENGTH + " characters";
+        }
+        if (request.getUnscaledAmount() < MIN_UNSCALED_AMOUNT) {
+            return "Amount must be greater than 0";
+        }
+        if (request.getDescription() != null && request.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void drainPendingWrites() {
+        Connection connection;
+        while ((connection = pendingWrites.poll()) != null) {
+            if (connection.key.isValid()) {
+                connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    private void write(Connection connection) throws IOException {
+        ByteBuffer[] batch = new ByteBuffer[MAX_GATHER];
+        while (true) {
+            int count = 0;
+            for (ByteBuffer buffer : connection.writeQueue) {
+                batch[count++] = buffer;
+                if (count == MAX_GATHER) {
+                    break;
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+
+            connection.channel.write(batch, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (batch[i].hasRemaining()) {
+                    // Socket buffer is full; keep OP_WRITE and resume on the next select
+                    return;
+                }
+                connection.writeQueue.poll();
+            }
+        }
+
+        connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_WRITE);
+        connection.writeScheduled.set(false);
+        // A worker may have enqueued between draining and clearing the flag
+        if (!connection.writeQueue.isEmpty() && connection.writeScheduled.compareAndSet(false, true)) {
+            connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+        }
+
+        if (connection.readPaused && connection.inFlight.get() < properties.getMaxInFlightPerConnection()) {
+            connection.readPaused = false;
+            connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Failed to close channel", e);
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer;
+        private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean writeScheduled = new AtomicBoolean();
+        private SelectionKey key;
+        private boolean readPaused;
+
+        private Connection(SocketChannel channel, ByteBuffer readBuffer) {
+            this.channel = channel;
+            this.readBuffer = readBuffer;
+        }
+
+        private void enqueue(ByteBuffer response) {
+            writeQueue.add(response);
+            inFlight.decrementAndGet();
+            if (writeScheduled.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+    }
+}
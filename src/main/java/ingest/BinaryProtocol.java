@@ -0,0 +1,170 @@
+package ingest;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed framing shared by {@link BinaryIngestServer} and {@link BinaryIngestClient}.
+ * <pre>
+ * request  := int length | byte opcode | long correlationId | long walletId
+ *             [ long amount | short refLen | ref (UTF-8) | short descLen | desc (UTF-8) ]   (CREDIT/DEBIT only)
+ * response := int length | byte status | long correlationId
+ *             ( long transactionId | long balance )   (STATUS_OK)
+ *             ( short msgLen | msg (UTF-8) )         (any other status)
+ * </pre>
+ * {@link #STATUS_ACCEPTED} means the credit was journaled while the database was unavailable and will be
+ * posted later; it carries no transaction id or balance yet.
+ * Amounts are fixed-point longs with {@link #AMOUNT_SCALE} decimals, matching the ledger columns.
+ * The length prefix counts the bytes after itself. String lengths are unsigned byte counts; a string that
+ * runs past the end of its frame fails decoding with {@link BufferUnderflowException}.
+ */
+public final class BinaryProtocol {
+
+    public static final byte OP_CREDIT = 1;
+    public static final byte OP_DEBIT = 2;
+    public static final byte OP_BALANCE = 3;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_NOT_FOUND = 1;
+    public static final byte STATUS_INSUFFICIENT_BALANCE = 2;
+    public static final byte STATUS_REJECTED = 3;
+    public static final byte STATUS_ERROR = 4;
+    public static final byte STATUS_ACCEPTED = 5;
+
+    public static final int AMOUNT_SCALE = 4;
+    public static final int LENGTH_PREFIX = Integer.BYTES;
+    public static final long NO_TRANSACTION = -1L;
+
+    private static final int HEADER = Byte.BYTES + Long.BYTES;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private BinaryProtocol() {
+    }
+
+    public static long toUnscaled(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromUnscaled(long unscaled) {
+        return BigDecimal.valueOf(unscaled, AMOUNT_SCALE);
+    }
+
+    public static ByteBuffer encodeTransactionRequest(byte opcode, long correlationId, long walletId,
+                                                      BigDecimal amount, String referenceId, String description) {
+        byte[] ref = encodeString(referenceId, "Reference ID");
+        byte[] desc = description != null ? encodeString(description, "Description") : new byte[0];
+        int length = HEADER + Long.BYTES + Long.BYTES + Short.BYTES + ref.length + Short.BYTES + desc.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + length);
+        buffer.putInt(length)
+                .put(opcode)
+                .putLong(correlationId)
+                .putLong(walletId)
+                .putLong(toUnscaled(amount))
+                .putShort((short) ref.length)
+                .put(ref)
+                .putShort((short) desc.length)
+                .put(desc);
+        return buffer.flip();
+    }
+
+    public static ByteBuffer encodeBalanceRequest(long correlationId, long walletId) {
+        int length = HEADER + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + length);
+        buffer.putInt(length)
+                .put(OP_BALANCE)
+                .putLong(correlationId)
+                .putLong(walletId);
+        return buffer.flip();
+    }
+
+    public static ByteBuffer encodeOk(long correlationId, long transactionId, BigDecimal balance) {
+        int length = HEADER + Long.BYTES + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + length);
+        buffer.putInt(length)
+                .put(STATUS_OK)
+                .putLong(correlationId)
+                .putLong(transactionId)
+                .putLong(toUnscaled(balance));
+        return buffer.flip();
+    }
+
+    public static ByteBuffer encodeAccepted(long correlationId) {
+        return encodeError(correlationId, STATUS_ACCEPTED, "Accepted for later posting");
+    }
+
+    public static ByteBuffer encodeError(long correlationId, byte status, String message) {
+        byte[] msg = encodeString(message != null ? message : "", "Message");
+        int length = HEADER + Short.BYTES + msg.length;
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH_PREFIX + length);
+        buffer.putInt(length)
+                .put(status)
+                .putLong(correlationId)
+                .putShort((short) msg.length)
+                .put(msg);
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes one request whose body (after the length prefix) starts at the buffer position.
+     * Fixed-width fields are read in place; only the strings are copied out.
+     */
+    public static BinaryRequest decodeRequest(ByteBuffer buffer) {
+        byte opcode = buffer.get();
+        long correlationId = buffer.getLong();
+        long walletId = buffer.getLong();
+
+        if (opcode == OP_BALANCE) {
+            return new BinaryRequest(opcode, correlationId, walletId, 0L, null, null);
+        }
+
+        long amount = buffer.getLong();
+        String referenceId = readString(buffer);
+        String description = readString(buffer);
+        return new BinaryRequest(opcode, correlationId, walletId, amount, referenceId,
+                description.isEmpty() ? null : description);
+    }
+
+    public static BinaryResponse decodeResponse(ByteBuffer buffer) {
+        byte status = buffer.get();
+        long correlationId = buffer.getLong();
+
+        if (status == STATUS_OK) {
+            long transactionId = buffer.getLong();
+            BigDecimal balance = fromUnscaled(buffer.getLong());
+            return new BinaryResponse(status, correlationId, transactionId, balance, null);
+        }
+
+        return new BinaryResponse(status, correlationId, NO_TRANSACTION, null, readString(buffer));
+    }
+
+    private static byte[] encodeString(String value, String field) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException(field + " exceeds " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == 0) {
+            return "";
+        }
+        // The array path below would otherwise read on into the next frame
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,20 @@
+package ingest;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class BinaryRequest {
+
+    byte opcode;
+    long correlationId;
+    long walletId;
+    long unscaledAmount;
+    String referenceId;
+    String description;
+
+    public BigDecimal getAmount() {
+        return BinaryProtocol.fromUnscaled(unscaledAmount);
+    }
+}
@@ -0,0 +1,23 @@
+package ingest;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class BinaryResponse {
+
+    byte status;
+    long correlationId;
+    long transactionId;
+    BigDecimal balance;
+    String message;
+
+    public boolean isOk() {
+        return status == BinaryProtocol.STATUS_OK;
+    }
+
+    public boolean isAccepted() {
+        return status == BinaryProtocol.STATUS_ACCEPTED;
+    }
+}
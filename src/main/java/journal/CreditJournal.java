@@ -0,0 +1,400 @@
+package journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local journal of accepted credits, used while the database is unavailable.
+ * <p>
+ * Records are appended to memory-mapped, preallocated segment files ({@code journal-000001.dat}, ...):
+ * <pre>
+ * record  := int magic | int payloadLength | int crc32(payload) | payload
+ * payload := long sequence | long walletId | long amount | long createdAtMillis
+ *            | short refLength | ref (UTF-8) | short descLength | desc (UTF-8)
+ * </pre>
+ * {@link #append} returns only once the record has been forced to disk. Concurrent appends share a
+ * single force (group commit), batched over {@code syncIntervalMs}.
+ * <p>
+ * On open, every segment is scanned and the tail of the last one is truncated at the first record
+ * with a bad magic, length or checksum, which discards a write torn by a crash. {@link #replay}
+ * hands entries after the persisted checkpoint to a handler. Replay is at-least-once, so the handler
+ * must be idempotent on referenceId.
+ */
+@Slf4j
+public class CreditJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x4A524E4C;
+    static final int HEADER_SIZE = 12;
+    static final int AMOUNT_SCALE = 4;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long syncIntervalNanos;
+
+    private final Object appendLock = new Object();
+    private final Object syncMonitor = new Object();
+    private final Object replayLock = new Object();
+    private final Thread syncThread;
+
+    private int segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long lastSequence;
+    private long syncedSequence;
+    private boolean syncRequested;
+    private volatile long checkpoint;
+    private volatile boolean running = true;
+
+    public CreditJournal(Path directory, long segmentSizeBytes, long syncIntervalMs) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSizeBytes;
+        this.syncIntervalNanos = syncIntervalMs * 1_000_000L;
+
+        Files.createDirectories(directory);
+        this.checkpoint = readCheckpoint();
+        recover();
+        this.syncedSequence = lastSequence;
+
+        syncThread = new Thread(this::syncLoop, "credit-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * Appends a credit and blocks until it is durable.
+     *
+     * @return the journal sequence assigned to the credit
+     */
+    public long append(long walletId, BigDecimal amount, String referenceId, String description) throws IOException {
+        byte[] ref = referenceId.getBytes(StandardCharsets.UTF_8);
+        byte[] desc = description != null ? description.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int payloadLength = 4 * Long.BYTES + Short.BYTES + ref.length + Short.BYTES + desc.length;
+        if (HEADER_SIZE + payloadLength > segmentSize) {
+            throw new IllegalArgumentException("Journal record exceeds segment size");
+        }
+
+        long sequence;
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IOException("Journal is closed");
+            }
+            if (buffer.remaining() < HEADER_SIZE + payloadLength) {
+                roll();
+            }
+            sequence = lastSequence + 1;
+
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            payload.putLong(sequence)
+                    .putLong(walletId)
+                    .putLong(amount.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact())
+                    .putLong(System.currentTimeMillis())
+                    .putShort((short) ref.length)
+                    .put(ref)
+                    .putShort((short) desc.length)
+                    .put(desc);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+
+            buffer.putInt(MAGIC)
+                    .putInt(payloadLength)
+                    .putInt((int) crc.getValue())
+                    .put(payload.array());
+            lastSequence = sequence;
+        }
+
+        awaitSync(sequence);
+        return sequence;
+    }
+
+    /**
+     * Applies every entry after the checkpoint in sequence order. A handler exception stops the
+     * replay; the checkpoint is advanced past the entries applied so far and the exception rethrown.
+     *
+     * @return the number of entries applied
+     */
+    public int replay(EntryHandler handler) throws IOException {
+        synchronized (replayLock) {
+            long startCheckpoint = checkpoint;
+            long[] applied = {startCheckpoint};
+            int[] count = {0};
+            List<Path> replayedSegments = new ArrayList<>();
+            int activeSegment;
+            synchronized (appendLock) {
+                activeSegment = segmentNumber;
+            }
+
+            try {
+                for (Path segment : listSegments()) {
+                    long lastInSegment;
+                    try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                        MappedByteBuffer map = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                        lastInSegment = scan(map, entry -> {
+                            if (entry.getSequence() > startCheckpoint) {
+                                handler.apply(entry);
+                                applied[0] = entry.getSequence();
+                                count[0]++;
+                            }
+                        }).lastSequence;
+                    }
+                    if (segmentNumber(segment) != activeSegment && lastInSegment <= applied[0]) {
+                        replayedSegments.add(segment);
+                    }
+                }
+            } finally {
+                if (applied[0] > startCheckpoint) {
+                    writeCheckpoint(applied[0]);
+                }
+            }
+
+            for (Path segment : replayedSegments) {
+                Files.deleteIfExists(segment);
+            }
+            return count[0];
+        }
+    }
+
+    public long pendingCount() {
+        synchronized (appendLock) {
+            return lastSequence - checkpoint;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        synchronized (syncMonitor) {
+            syncMonitor.notifyAll();
+        }
+        try {
+            syncThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        synchronized (appendLock) {
+            channel.close();
+        }
+    }
+
+    private void awaitSync(long sequence) throws IOException {
+        synchronized (syncMonitor) {
+            syncRequested = true;
+            syncMonitor.notifyAll();
+            while (syncedSequence < sequence) {
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for journal sync");
+                }
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            synchronized (syncMonitor) {
+                while (!syncRequested && running) {
+                    try {
+                        syncMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                syncRequested = false;
+            }
+            if (syncIntervalNanos > 0) {
+                // Let concurrent appenders pile into the same force
+                LockSupport.parkNanos(syncIntervalNanos);
+            }
+            sync();
+        }
+    }
+
+    private void sync() {
+        long target;
+        MappedByteBuffer current;
+        synchronized (appendLock) {
+            target = lastSequence;
+            current = buffer;
+        }
+        current.force();
+        synchronized (syncMonitor) {
+            syncedSequence = Math.max(syncedSequence, target);
+            syncMonitor.notifyAll();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = listSegments();
+        long maxSequence = checkpoint;
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            boolean last = i == segments.size() - 1;
+            FileChannel segmentChannel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer map = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentChannel.size());
+            ScanResult result = scan(map, entry -> { });
+            maxSequence = Math.max(maxSequence, result.lastSequence);
+
+            if (result.corrupt) {
+                log.warn("Discarding torn journal tail: segment={}, offset={}", segment, result.end);
+                // Zero the tail so stale bytes can never be mistaken for records appended later
+                for (int position = result.end; position < map.limit(); position++) {
+                    map.put(position, (byte) 0);
+                }
+                map.force();
+            }
+
+            if (last) {
+                segmentNumber = segmentNumber(segment);
+                channel = segmentChannel;
+                buffer = map;
+                buffer.position(result.end);
+            } else {
+                segmentChannel.close();
+            }
+        }
+
+        lastSequence = maxSequence;
+        if (buffer == null) {
+            openSegment(1);
+        }
+        log.info("Credit journal opened: directory={}, lastSequence={}, checkpoint={}",
+                directory, lastSequence, checkpoint);
+    }
+
+    private ScanResult scan(ByteBuffer map, EntryHandler handler) {
+        ScanResult result = new ScanResult();
+        int position = 0;
+        CRC32 crc = new CRC32();
+
+        while (position + HEADER_SIZE <= map.limit()) {
+            int magic = map.getInt(position);
+            if (magic != MAGIC) {
+                result.corrupt = magic != 0;
+                break;
+            }
+            int length = map.getInt(position + 4);
+            if (length <= 0 || length > map.limit() - position - HEADER_SIZE) {
+                result.corrupt = true;
+                break;
+            }
+
+            ByteBuffer payload = map.duplicate();
+            payload.limit(position + HEADER_SIZE + length).position(position + HEADER_SIZE);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != map.getInt(position + 8)) {
+                result.corrupt = true;
+                break;
+            }
+
+            JournalEntry entry = decode(payload);
+            handler.apply(entry);
+            result.lastSequence = entry.getSequence();
+            position += HEADER_SIZE + length;
+        }
+
+        result.end = position;
+        return result;
+    }
+
+    private static JournalEntry decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long walletId = payload.getLong();
+        BigDecimal amount = BigDecimal.valueOf(payload.getLong(), AMOUNT_SCALE);
+        long createdAtMillis = payload.getLong();
+        byte[] ref = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(ref);
+        byte[] desc = new byte[Short.toUnsignedInt(payload.getShort())];
+        payload.get(desc);
+        return new JournalEntry(sequence, walletId, amount, new String(ref, StandardCharsets.UTF_8),
+                desc.length > 0 ? new String(desc, StandardCharsets.UTF_8) : null, createdAtMillis);
+    }
+
+    private void roll() throws IOException {
+        buffer.force();
+        channel.close();
+        openSegment(segmentNumber + 1);
+    }
+
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        Path segment = directory.resolve(String.format(SEGMENT_PREFIX + "%06d" + SEGMENT_SUFFIX, number));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches(SEGMENT_PREFIX + "\\d{6}" + SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file)).getLong();
+    }
+
+    private void writeCheckpoint(long sequence) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel checkpointChannel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(sequence).flip());
+            checkpointChannel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = sequence;
+    }
+
+    @FunctionalInterface
+    public interface EntryHandler {
+        void apply(JournalEntry entry);
+    }
+
+    private static final class ScanResult {
+        private int end;
+        private long lastSequence;
+        private boolean corrupt;
+    }
+}
@@ -0,0 +1,16 @@
+package journal;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class JournalEntry {
+
+    long sequence;
+    long walletId;
+    BigDecimal amount;
+    String referenceId;
+    String description;
+    long createdAtMillis;
+}
@@ -0,0 +1,42 @@
+package repository;
+
+import entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+
+    @Query(value = "SELECT transaction_id FROM idempotency_keys " +
+            "WHERE key_high = :keyHigh AND key_low = :keyLow AND bucket BETWEEN :minBucket AND :bucket LIMIT 1",
+            nativeQuery = true)
+    Optional<Long> findTransactionId(@Param("keyHigh") long keyHigh,
+                                     @Param("keyLow") long keyLow,
+                                     @Param("minBucket") int minBucket,
+                                     @Param("bucket") int bucket);
+
+    // Serialises writers of the same key for the rest of the transaction, so the NOT EXISTS check in
+    // insertIfAbsent sees any competing insert once it has committed
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:keyHigh)) AS l", nativeQuery = true)
+    Integer lockKey(@Param("keyHigh") long keyHigh);
+
+    // The primary key only covers one bucket; uniqueness across the retained buckets comes from the
+    // NOT EXISTS check under the lockKey lock
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_high, key_low, bucket, transaction_id, created_at) " +
+            "SELECT :keyHigh, :keyLow, :bucket, :transactionId, now() " +
+            "WHERE NOT EXISTS (SELECT 1 FROM idempotency_keys " +
+            "WHERE key_high = :keyHigh AND key_low = :keyLow AND bucket BETWEEN :minBucket AND :bucket) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("keyHigh") long keyHigh,
+                       @Param("keyLow") long keyLow,
+                       @Param("bucket") int bucket,
+                       @Param("minBucket") int minBucket,
+                       @Param("transactionId") long transactionId);
+}
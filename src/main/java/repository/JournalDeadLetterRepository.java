@@ -0,0 +1,32 @@
+package repository;
+
+import entity.JournalDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Repository
+public interface JournalDeadLetterRepository extends JpaRepository<JournalDeadLetter, Long> {
+
+    // Commits on its own: the credit it records has already been rolled back
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO journal_dead_letters (journal_sequence, wallet_id, amount, reference_id, description, " +
+            "journaled_at, reason, resolved, created_at) " +
+            "VALUES (:sequence, :walletId, :amount, :referenceId, :description, :journaledAt, :reason, false, now()) " +
+            "ON CONFLICT (reference_id) DO NOTHING",
+            nativeQuery = true)
+    int insert(@Param("sequence") long sequence,
+               @Param("walletId") long walletId,
+               @Param("amount") BigDecimal amount,
+               @Param("referenceId") String referenceId,
+               @Param("description") String description,
+               @Param("journaledAt") LocalDateTime journaledAt,
+               @Param("reason") String reason);
+}
@@ -0,0 +1,26 @@
+package repository;
+
+import entity.PostingRunChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PostingRunChunkRepository extends JpaRepository<PostingRunChunk, PostingRunChunk.Key> {
+
+    @Query("SELECT c.id.chunkStart FROM PostingRunChunk c WHERE c.id.runId = :runId")
+    List<Long> findCompletedChunkStarts(@Param("runId") String runId);
+
+    @Query("SELECT COUNT(c) AS chunksCompleted, SUM(c.postedCount) AS walletsPosted " +
+            "FROM PostingRunChunk c WHERE c.id.runId = :runId")
+    ChunkProgress summarizeProgress(@Param("runId") String runId);
+
+    interface ChunkProgress {
+        Long getChunksCompleted();
+
+        Long getWalletsPosted();
+    }
+}
@@ -0,0 +1,9 @@
+package repository;
+
+import entity.PostingRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PostingRunRepository extends JpaRepository<PostingRun, String> {
+}
@@ -0,0 +1,64 @@
+package repository;
+
+import entity.WalletDailyAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface WalletDailyAggregateRepository extends JpaRepository<WalletDailyAggregate, Long> {
+
+    // Single-statement upsert so concurrent postings to the same wallet/day never read-modify-write
+    @Modifying
+    @Query(value = """
+            INSERT INTO wallet_daily_aggregates
+                (wallet_id, aggregate_date, credit_total, debit_total, credit_count, debit_count,
+                 min_balance, max_balance, updated_at)
+            VALUES (:walletId, :aggregateDate, :creditAmount, :debitAmount, :creditCount, :debitCount,
+                    :lowBalance, :highBalance, now())
+            ON CONFLICT (wallet_id, aggregate_date) DO UPDATE SET
+                credit_total = wallet_daily_aggregates.credit_total + EXCLUDED.credit_total,
+                debit_total = wallet_daily_aggregates.debit_total + EXCLUDED.debit_total,
+                credit_count = wallet_daily_aggregates.credit_count + EXCLUDED.credit_count,
+                debit_count = wallet_daily_aggregates.debit_count + EXCLUDED.debit_count,
+                min_balance = LEAST(wallet_daily_aggregates.min_balance, EXCLUDED.min_balance),
+                max_balance = GREATEST(wallet_daily_aggregates.max_balance, EXCLUDED.max_balance),
+                updated_at = now()
+            """, nativeQuery = true)
+    int upsert(@Param("walletId") Long walletId,
+               @Param("aggregateDate") LocalDate aggregateDate,
+               @Param("creditAmount") BigDecimal creditAmount,
+               @Param("debitAmount") BigDecimal debitAmount,
+               @Param("creditCount") long creditCount,
+               @Param("debitCount") long debitCount,
+               @Param("lowBalance") BigDecimal lowBalance,
+               @Param("highBalance") BigDecimal highBalance);
+
+    @Query("SELECT SUM(a.creditTotal) AS creditTotal, SUM(a.debitTotal) AS debitTotal, " +
+            "SUM(a.creditCount) AS creditCount, SUM(a.debitCount) AS debitCount, " +
+            "MIN(a.minBalance) AS minBalance, MAX(a.maxBalance) AS maxBalance " +
+            "FROM WalletDailyAggregate a " +
+            "WHERE a.walletId = :walletId AND a.aggregateDate BETWEEN :fromDate AND :toDate")
+    AggregateTotals sumByWalletIdAndDateRange(@Param("walletId") Long walletId,
+                                              @Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
+    interface AggregateTotals {
+        BigDecimal getCreditTotal();
+
+        BigDecimal getDebitTotal();
+
+        Long getCreditCount();
+
+        Long getDebitCount();
+
+        BigDecimal getMinBalance();
+
+        BigDecimal getMaxBalance();
+    }
+}
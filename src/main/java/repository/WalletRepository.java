@@ -4,21 +4,71 @@ import entity.Wallet;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface WalletRepository extends JpaRepository<Wallet, Long> {
+public interface WalletRepository extends JpaRepository<Wallet, Long>, WalletTierRepository {
 
-    Optional<Wallet> findByUserId(String userId);
+    // The lookups below only see the hot wallets table; the default methods fall back to the cold tier
+    // and move the wallet back before returning it
+
+    @Query("SELECT w FROM Wallet w WHERE w.userId = :userId")
+    Optional<Wallet> findHotByUserId(@Param("userId") String userId);
+
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findHotById(@Param("id") Long id);
 
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT w FROM Wallet w WHERE w.id = :id")
-    Optional<Wallet> findByIdWithLock(@Param("id") Long id);
+    Optional<Wallet> findHotByIdWithLock(@Param("id") Long id);
+
+    default Optional<Wallet> findByUserId(String userId) {
+        Optional<Wallet> wallet = findHotByUserId(userId);
+        if (wallet.isPresent() || !rehydrateByUserId(userId)) {
+            return wallet;
+        }
+        return findHotByUserId(userId);
+    }
+
+    default Optional<Wallet> findByIdAnyTier(Long id) {
+        Optional<Wallet> wallet = findHotById(id);
+        if (wallet.isPresent() || !rehydrate(id)) {
+            return wallet;
+        }
+        return findHotById(id);
+    }
+
+    default Optional<Wallet> findByIdWithLock(Long id) {
+        Optional<Wallet> wallet = findHotByIdWithLock(id);
+        if (wallet.isPresent() || !rehydrate(id)) {
+            return wallet;
+        }
+        return findHotByIdWithLock(id);
+    }
+
+    // wallet_user_ids covers both tiers, see WalletUserId
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM wallet_user_ids WHERE user_id = :userId)", nativeQuery = true)
+    boolean existsByUserId(@Param("userId") String userId);
+
+    // Returns 0 when the user_id already owns a wallet in either tier; the primary key makes this race-free
+    @Modifying
+    @Query(value = "INSERT INTO wallet_user_ids (user_id, created_at) VALUES (:userId, now()) " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int claimUserId(@Param("userId") String userId);
+
+    // Existence checks do not rehydrate: a read of history or aggregates alone should not warm a wallet
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM wallets WHERE id = :id) " +
+            "OR EXISTS (SELECT 1 FROM wallets_cold WHERE id = :id)", nativeQuery = true)
+    boolean existsByIdAnyTier(@Param("id") Long id);
 
-    boolean existsByUserId(String userId);
+    // For read-only callers that only need the currency, e.g. statements; does not rehydrate either
+    @Query(value = "SELECT currency FROM wallets WHERE id = :id " +
+            "UNION ALL SELECT currency FROM wallets_cold WHERE id = :id LIMIT 1", nativeQuery = true)
+    Optional<String> findCurrencyAnyTier(@Param("id") Long id);
 
 
-}
\ No newline at end of file
+}
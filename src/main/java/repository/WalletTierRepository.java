@@ -0,0 +1,30 @@
+package repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+public interface WalletTierRepository {
+
+    // Advisory lock taken exclusively by archive batches and shared by bulk posting chunks
+    long TIER_MOVE_LOCK = 0x77616c6c65744cL;
+
+    boolean rehydrate(Long walletId);
+
+    boolean rehydrateByUserId(String userId);
+
+    /**
+     * Moves up to {@code batchSize} archivable wallets with an id above {@code afterId} to the cold tier.
+     *
+     * @return the batch result, or {@code null} once no wallet above {@code afterId} qualifies
+     */
+    ArchiveBatch archive(LocalDateTime dormantBefore, long afterId, int batchSize);
+
+    @Value
+    class ArchiveBatch {
+        int moved;
+        // Highest id examined, where the next batch continues
+        long lastId;
+    }
+
+}
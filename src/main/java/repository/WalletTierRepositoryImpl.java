@@ -0,0 +1,95 @@
+package repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+// Spring Data fragment backing the tier-aware lookups on WalletRepository
+public class WalletTierRepositoryImpl implements WalletTierRepository {
+
+    private static final String REHYDRATE_SQL = """
+            WITH moved AS (
+                DELETE FROM wallets_cold WHERE %s = ?
+                RETURNING id, user_id, balance, currency, status, version, created_at
+            )
+            INSERT INTO wallets (id, user_id, balance, currency, status, version, created_at, updated_at)
+            SELECT id, user_id, balance, currency, status, version, created_at, now()
+            FROM moved
+            """;
+
+    // Keyset over the primary key, so each batch resumes where the last one stopped instead of rescanning
+    // from the lowest id. SKIP LOCKED leaves wallets that online traffic is currently touching for the next sweep.
+    private static final String ARCHIVE_SQL = """
+            WITH candidates AS (
+                SELECT id FROM wallets
+                WHERE id > ? AND (status = 'CLOSED' OR COALESCE(updated_at, created_at) < ?)
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ),
+            moved AS (
+                DELETE FROM wallets w USING candidates c
+                WHERE w.id = c.id
+                RETURNING w.id, w.user_id, w.balance, w.currency, w.status, w.version, w.created_at, w.updated_at
+            ),
+            archived AS (
+                INSERT INTO wallets_cold (id, user_id, balance, currency, status, version, created_at, updated_at,
+                                          archived_at)
+                SELECT id, user_id, balance, currency, status, version, created_at, updated_at, now()
+                FROM moved
+                RETURNING id
+            )
+            SELECT (SELECT count(*) FROM archived) AS moved, (SELECT max(id) FROM candidates) AS last_id
+            """;
+
+    // Primary-key probe in the caller's transaction; most misses are ids that exist in neither tier
+    private static final String COLD_EXISTS_SQL = "SELECT EXISTS (SELECT 1 FROM wallets_cold WHERE %s = ?)";
+
+    private static final String TIER_LOCK_SQL = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(?)) AS l";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+
+    public WalletTierRepositoryImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean rehydrate(Long walletId) {
+        return rehydrate("id", walletId);
+    }
+
+    @Override
+    public boolean rehydrateByUserId(String userId) {
+        return rehydrate("user_id", userId);
+    }
+
+    // The move runs in its own transaction so it also works under read-only callers, and commits before the
+    // caller re-reads the hot table. It is only attempted when the cold tier actually holds the wallet.
+    private boolean rehydrate(String column, Object value) {
+        Boolean cold = jdbcTemplate.queryForObject(String.format(COLD_EXISTS_SQL, column), Boolean.class, value);
+        if (!Boolean.TRUE.equals(cold)) {
+            return false;
+        }
+        Integer moved = requiresNew.execute(status ->
+                jdbcTemplate.update(String.format(REHYDRATE_SQL, column), value));
+        return moved != null && moved > 0;
+    }
+
+    // Waits for in-flight posting chunks, which must see each wallet in exactly one tier
+    @Override
+    public ArchiveBatch archive(LocalDateTime dormantBefore, long afterId, int batchSize) {
+        return requiresNew.execute(status -> {
+            jdbcTemplate.queryForObject(TIER_LOCK_SQL, Integer.class, TIER_MOVE_LOCK);
+            return jdbcTemplate.queryForObject(ARCHIVE_SQL, (rs, rowNum) -> {
+                long lastId = rs.getLong("last_id");
+                return rs.wasNull() ? null : new ArchiveBatch(rs.getInt("moved"), lastId);
+            }, afterId, dormantBefore, batchSize);
+        });
+    }
+}
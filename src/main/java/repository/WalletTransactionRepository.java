@@ -2,12 +2,18 @@ package repository;
 
 
 import entity.WalletTransaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface WalletTransactionRepository extends JpaRepository<WalletTransaction, Long> {
@@ -18,5 +24,23 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
 
     Page<WalletTransaction> findByWalletIdOrderByCreatedAtDesc(Long walletId, Pageable pageable);
 
+    // Single backward seek on idx_transaction_wallet_created_at
+    Optional<WalletTransaction> findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(
+            Long walletId, LocalDateTime at);
+
+    Optional<WalletTransaction> findFirstByWalletIdAndCreatedAtBeforeOrderByCreatedAtDescIdDesc(
+            Long walletId, LocalDateTime before);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT t FROM WalletTransaction t " +
+            "WHERE t.walletId = :walletId AND t.createdAt >= :fromTime AND t.createdAt < :toTime " +
+            "ORDER BY t.createdAt, t.id")
+    Stream<WalletTransaction> streamByWalletIdAndPeriod(@Param("walletId") Long walletId,
+                                                        @Param("fromTime") LocalDateTime fromTime,
+                                                        @Param("toTime") LocalDateTime toTime);
+
 
 }
@@ -0,0 +1,12 @@
+package service;
+
+import dto.PostingRunRequest;
+import dto.PostingRunResponse;
+
+public interface BulkPostingService {
+
+    PostingRunResponse startRun(PostingRunRequest request);
+
+    PostingRunResponse getRun(String runId);
+
+}
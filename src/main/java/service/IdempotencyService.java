@@ -0,0 +1,24 @@
+package service;
+
+import entity.WalletTransaction;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface IdempotencyService {
+
+    /**
+     * Looks the referenceId up in the key store, which is authoritative for the retention window. The
+     * ledger is consulted instead when {@code requestedAt} shows the first attempt predates that window,
+     * and after a miss when the caller sent no {@code requestedAt}; callers that send it skip the ledger
+     * lookup for new referenceIds.
+     */
+    Optional<WalletTransaction> findExisting(String referenceId, Instant requestedAt);
+
+    /**
+     * @throws exception.DuplicateTransactionException if the referenceId was already recorded within
+     *                                                 the retention window
+     */
+    void record(WalletTransaction transaction);
+
+}
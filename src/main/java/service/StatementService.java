@@ -0,0 +1,17 @@
+package service;
+
+import dto.BalanceAtResponse;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface StatementService {
+
+    BalanceAtResponse getBalanceAt(Long walletId, LocalDateTime at);
+
+    void validateStatementRequest(Long walletId, LocalDate fromDate, LocalDate toDate);
+
+    void writeStatement(Long walletId, LocalDate fromDate, LocalDate toDate, OutputStream output);
+
+}
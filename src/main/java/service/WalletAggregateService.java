@@ -0,0 +1,14 @@
+package service;
+
+import dto.WalletAggregateResponse;
+import entity.WalletTransaction;
+
+import java.time.LocalDate;
+
+public interface WalletAggregateService {
+
+    void recordTransaction(WalletTransaction transaction);
+
+    WalletAggregateResponse getAggregates(Long walletId, LocalDate fromDate, LocalDate toDate);
+
+}
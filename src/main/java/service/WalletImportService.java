@@ -0,0 +1,16 @@
+package service;
+
+import dto.WalletImportResponse;
+
+import java.io.InputStream;
+
+public interface WalletImportService {
+
+    WalletImportResponse importWallets(InputStream input, ImportFormat format);
+
+    enum ImportFormat {
+        CSV,
+        NDJSON
+    }
+
+}
@@ -0,0 +1,7 @@
+package service;
+
+public interface WalletTieringService {
+
+    int archiveWallets();
+
+}
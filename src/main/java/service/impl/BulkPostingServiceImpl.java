@@ -0,0 +1,374 @@
+package service.impl;
+
+import audit.AuditEvent;
+import audit.AuditLogger;
+import config.BulkPostingProperties;
+import config.IdempotencyProperties;
+import dto.PostingRunRequest;
+import dto.PostingRunResponse;
+import entity.PostingRun;
+import entity.WalletTransaction;
+import exception.PostingRunNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.PostingRunChunkRepository;
+import repository.PostingRunRepository;
+import repository.WalletTierRepository;
+import service.BulkPostingService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkPostingServiceImpl implements BulkPostingService {
+
+    // One statement per wallet id range: lock the eligible ACTIVE wallets, insert ledger rows with deterministic
+    // "<runId>:<walletId>" references for those whose key is not yet in idempotency_keys, record the keys and
+    // daily aggregates for what was actually inserted, then move the balances and return the posted rows for the
+    // audit log. The version bump makes concurrent online writers on the same wallets retry through optimistic
+    // locking. The same statement runs against wallets_cold, so archived wallets are posted in place.
+    private static final String POST_CHUNK_SQL = """
+            WITH target AS (
+                SELECT id, balance, currency, %1$s AS amount, CAST(? AS varchar) || ':' || id AS reference_id
+                FROM %5$s
+                WHERE id BETWEEN ? AND ? AND status = 'ACTIVE' AND currency = ?
+                FOR UPDATE
+            ),
+            keyed AS (
+                SELECT target.*,
+                       ('x' || substr(md5(reference_id), 1, 16))::bit(64)::bigint AS key_high,
+                       ('x' || substr(md5(reference_id), 17, 16))::bit(64)::bigint AS key_low
+                FROM target
+            ),
+            posted AS (
+                INSERT INTO wallet_transactions
+                    (wallet_id, reference_id, transaction_type, amount, balance_before, balance_after,
+                     currency, description, status, created_at)
+                SELECT id, reference_id, CAST(? AS varchar), amount, balance, balance %2$s amount,
+                       currency, CAST(? AS varchar), 'SUCCESS', ?
+                FROM keyed k
+                WHERE amount > 0 %3$s
+                  AND NOT EXISTS (
+                      SELECT 1 FROM idempotency_keys i
+                      WHERE i.key_high = k.key_high AND i.key_low = k.key_low AND i.bucket BETWEEN ? AND ?
+                  )
+                RETURNING id AS transaction_id, wallet_id, reference_id, amount, balance_before, balance_after
+            ),
+            idempotency AS (
+                INSERT INTO idempotency_keys (key_high, key_low, bucket, transaction_id, created_at)
+                SELECT ('x' || substr(md5(reference_id), 1, 16))::bit(64)::bigint,
+                       ('x' || substr(md5(reference_id), 17, 16))::bit(64)::bigint,
+                       ?, transaction_id, now()
+                FROM posted
+            ),
+            aggregates AS (
+                INSERT INTO wallet_daily_aggregates
+                    (wallet_id, aggregate_date, credit_total, debit_total, credit_count, debit_count,
+                     min_balance, max_balance, updated_at)
+                SELECT wallet_id, ?, %4$s,
+                       LEAST(balance_before, balance_after), GREATEST(balance_before, balance_after), now()
+                FROM posted
+                ON CONFLICT (wallet_id, aggregate_date) DO UPDATE SET
+                    credit_total = wallet_daily_aggregates.credit_total + EXCLUDED.credit_total,
+                    debit_total = wallet_daily_aggregates.debit_total + EXCLUDED.debit_total,
+                    credit_count = wallet_daily_aggregates.credit_count + EXCLUDED.credit_count,
+                    debit_count = wallet_daily_aggregates.debit_count + EXCLUDED.debit_count,
+                    min_balance = LEAST(wallet_daily_aggregates.min_balance, EXCLUDED.min_balance),
+                    max_balance = GREATEST(wallet_daily_aggregates.max_balance, EXCLUDED.max_balance),
+                    updated_at = now()
+            )
+            UPDATE %5$s w
+            SET balance = p.balance_after, version = w.version + 1, updated_at = now()
+            FROM posted p
+            WHERE w.id = p.wallet_id
+            RETURNING p.transaction_id, p.wallet_id, p.reference_id, p.amount, p.balance_after
+            """;
+
+    private static final String[] TIERS = {"wallets_cold", "wallets"};
+
+    // Fees are only taken from wallets that can cover them in full
+    private static final String[] FEE_SQL = chunkSql("CAST(? AS numeric(19, 4))", "-", "AND balance >= amount",
+            "0, amount, 0, 1");
+
+    private static final String[] INTEREST_SQL = chunkSql("ROUND(balance * CAST(? AS numeric), 4)", "+", "",
+            "amount, 0, 1, 0");
+
+    // Held shared by each chunk so no archive batch can move a wallet between the cold and hot passes
+    private static final String TIER_LOCK_SQL = "SELECT 1 FROM (SELECT pg_advisory_xact_lock_shared(?)) AS l";
+
+    // Claimed before posting: a second runner of the same chunk waits on the primary key until the first commits,
+    // then finds the chunk done. This, not the ledger, is what makes a rerun post nothing once the keys expire.
+    private static final String CLAIM_CHUNK_SQL =
+            "INSERT INTO posting_run_chunks (run_id, chunk_start, chunk_end, posted_count, completed_at) " +
+                    "VALUES (?, ?, ?, 0, now()) ON CONFLICT (run_id, chunk_start) DO NOTHING";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE posting_run_chunks SET posted_count = ?, completed_at = now() WHERE run_id = ? AND chunk_start = ?";
+
+    private static final RowMapper<PostedTransaction> POSTED_ROW = (resultSet, rowNum) -> new PostedTransaction(
+            resultSet.getLong("transaction_id"),
+            resultSet.getLong("wallet_id"),
+            resultSet.getString("reference_id"),
+            resultSet.getBigDecimal("amount"),
+            resultSet.getBigDecimal("balance_after"));
+
+    private final PostingRunRepository runRepository;
+    private final PostingRunChunkRepository chunkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final BulkPostingProperties properties;
+    private final IdempotencyProperties idempotencyProperties;
+    private final AuditLogger auditLogger;
+
+    private final Set<String> activeRuns = ConcurrentHashMap.newKeySet();
+    private final ExecutorService coordinator = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-posting-coordinator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public PostingRunResponse startRun(PostingRunRequest request) {
+        validateParameters(request);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        PostingRun run = transactionTemplate.execute(status -> runRepository.findById(request.getRunId())
+                .map(existing -> resumeIfStopped(existing, request))
+                .orElseGet(() -> runRepository.save(PostingRun.builder()
+                        .runId(request.getRunId())
+                        .postingType(request.getPostingType())
+                        .currency(request.getCurrency())
+                        .amount(request.getAmount())
+                        .rate(request.getRate())
+                        .description(request.getDescription())
+                        .status(PostingRun.PostingStatus.RUNNING)
+                        .build())));
+
+        if (run.getStatus() == PostingRun.PostingStatus.RUNNING && activeRuns.add(run.getRunId())) {
+            log.info("Starting posting run: runId={}, type={}, currency={}",
+                    run.getRunId(), run.getPostingType(), run.getCurrency());
+            coordinator.execute(() -> executeRun(run));
+        }
+
+        return toResponse(run);
+    }
+
+    @Override
+    public PostingRunResponse getRun(String runId) {
+        PostingRun run = runRepository.findById(runId)
+                .orElseThrow(() -> new PostingRunNotFoundException("Posting run not found: " + runId));
+        return toResponse(run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private PostingRun resumeIfStopped(PostingRun existing, PostingRunRequest request) {
+        boolean sameParameters = existing.getPostingType() == request.getPostingType()
+                && existing.getCurrency().equals(request.getCurrency())
+                && sameValue(existing.getAmount(), request.getAmount())
+                && sameValue(existing.getRate(), request.getRate());
+        if (!sameParameters) {
+            throw new IllegalArgumentException("Run ID already used with different parameters: " + existing.getRunId());
+        }
+
+        // A RUNNING run that is not active here was interrupted by a crash or restart
+        if (existing.getStatus() == PostingRun.PostingStatus.FAILED
+                || (existing.getStatus() == PostingRun.PostingStatus.RUNNING && !activeRuns.contains(existing.getRunId()))) {
+            log.info("Resuming posting run from checkpoint: runId={}", existing.getRunId());
+            existing.setStatus(PostingRun.PostingStatus.RUNNING);
+            existing.setErrorMessage(null);
+            existing.setCompletedAt(null);
+            return runRepository.save(existing);
+        }
+        return existing;
+    }
+
+    void executeRun(PostingRun run) {
+        String runId = run.getRunId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getParallelism());
+
+        try {
+            List<long[]> chunks = planChunks();
+            Set<Long> completed = new HashSet<>(chunkRepository.findCompletedChunkStarts(runId));
+            updateRun(transactionTemplate, runId, PostingRun.PostingStatus.RUNNING, (long) chunks.size(), null);
+
+            AuditEvent event = run.getPostingType() == PostingRun.PostingType.FEE
+                    ? AuditEvent.DEBIT_POSTED
+                    : AuditEvent.CREDIT_POSTED;
+
+            AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                if (completed.contains(chunk[0])) {
+                    continue;
+                }
+                futures.add(workers.submit(() -> {
+                    throttle(nextSlot);
+                    List<PostedTransaction> posted = transactionTemplate.execute(status ->
+                            postChunk(run, chunk[0], chunk[1]));
+                    // Audited only once the chunk has committed; a rerun posts nothing new, so it records nothing
+                    for (PostedTransaction transaction : posted) {
+                        auditLogger.moneyMovement(event, transaction.getWalletId(), transaction.getTransactionId(),
+                                transaction.getReferenceId(), transaction.getAmount(), transaction.getBalanceAfter());
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            updateRun(transactionTemplate, runId, PostingRun.PostingStatus.COMPLETED, null, null);
+            log.info("Posting run completed: runId={}, chunks={}", runId, chunks.size());
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Posting run failed, rerun with the same runId to resume: runId={}", runId, cause);
+            updateRun(transactionTemplate, runId, PostingRun.PostingStatus.FAILED, null, cause.getMessage());
+        } finally {
+            workers.shutdownNow();
+            activeRuns.remove(runId);
+        }
+    }
+
+    // Chunk boundaries are aligned to multiples of chunkSize so they stay identical when a run is resumed
+    private List<long[]> planChunks() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(
+                "SELECT MIN(min_id) AS min_id, MAX(max_id) AS max_id FROM (" +
+                        "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM wallets " +
+                        "UNION ALL SELECT MIN(id), MAX(id) FROM wallets_cold) AS bounds");
+        List<long[]> chunks = new ArrayList<>();
+        if (bounds.get("min_id") == null) {
+            return chunks;
+        }
+
+        long chunkSize = properties.getChunkSize();
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        for (long start = minId / chunkSize * chunkSize; start <= maxId; start += chunkSize) {
+            chunks.add(new long[]{start, start + chunkSize - 1});
+        }
+        return chunks;
+    }
+
+    // The cold tier is posted first: a wallet rehydrated after that pass is already in wallets for the hot pass
+    List<PostedTransaction> postChunk(PostingRun run, long chunkStart, long chunkEnd) {
+        boolean fee = run.getPostingType() == PostingRun.PostingType.FEE;
+        String[] sql = fee ? FEE_SQL : INTEREST_SQL;
+        BigDecimal parameter = fee ? run.getAmount() : run.getRate();
+        String transactionType = fee
+                ? WalletTransaction.TransactionType.DEBIT.name()
+                : WalletTransaction.TransactionType.CREDIT.name();
+
+        if (jdbcTemplate.update(CLAIM_CHUNK_SQL, run.getRunId(), chunkStart, chunkEnd) == 0) {
+            log.debug("Posting chunk already completed: runId={}, range=[{}, {}]", run.getRunId(), chunkStart, chunkEnd);
+            return List.of();
+        }
+        jdbcTemplate.queryForObject(TIER_LOCK_SQL, Integer.class, WalletTierRepository.TIER_MOVE_LOCK);
+
+        LocalDateTime now = LocalDateTime.now();
+        int bucket = IdempotencyServiceImpl.currentBucket();
+        List<PostedTransaction> posted = new ArrayList<>();
+        for (String tierSql : sql) {
+            posted.addAll(jdbcTemplate.query(tierSql, POSTED_ROW,
+                    parameter,
+                    run.getRunId(),
+                    chunkStart,
+                    chunkEnd,
+                    run.getCurrency(),
+                    transactionType,
+                    run.getDescription(),
+                    now,
+                    bucket - idempotencyProperties.getRetentionDays(),
+                    bucket,
+                    bucket,
+                    now.toLocalDate()));
+        }
+
+        jdbcTemplate.update(CHECKPOINT_SQL, posted.size(), run.getRunId(), chunkStart);
+        log.debug("Posting chunk completed: runId={}, range=[{}, {}], posted={}",
+                run.getRunId(), chunkStart, chunkEnd, posted.size());
+        return posted;
+    }
+
+    private void throttle(AtomicLong nextSlot) {
+        if (properties.getMaxChunksPerSecond() <= 0) {
+            return;
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / properties.getMaxChunksPerSecond();
+        long slot = nextSlot.getAndUpdate(previous -> Math.max(previous, System.nanoTime()) + interval);
+        long wait = slot - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void updateRun(TransactionTemplate transactionTemplate, String runId, PostingRun.PostingStatus status,
+                           Long chunksTotal, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx -> runRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(status);
+            if (chunksTotal != null) {
+                run.setChunksTotal(chunksTotal);
+            }
+            run.setErrorMessage(errorMessage);
+            if (status != PostingRun.PostingStatus.RUNNING) {
+                run.setCompletedAt(LocalDateTime.now());
+            }
+            runRepository.save(run);
+        }));
+    }
+
+    private PostingRunResponse toResponse(PostingRun run) {
+        PostingRunChunkRepository.ChunkProgress progress = chunkRepository.summarizeProgress(run.getRunId());
+        long chunksCompleted = progress.getChunksCompleted() != null ? progress.getChunksCompleted() : 0L;
+        long walletsPosted = progress.getWalletsPosted() != null ? progress.getWalletsPosted() : 0L;
+        return PostingRunResponse.fromEntity(run, chunksCompleted, walletsPosted);
+    }
+
+    private static void validateParameters(PostingRunRequest request) {
+        if (request.getPostingType() == PostingRun.PostingType.FEE && request.getAmount() == null) {
+            throw new IllegalArgumentException("Amount is required for fee runs");
+        }
+        if (request.getPostingType() == PostingRun.PostingType.INTEREST && request.getRate() == null) {
+            throw new IllegalArgumentException("Rate is required for interest runs");
+        }
+    }
+
+    private static String[] chunkSql(String amount, String operator, String condition, String aggregates) {
+        String[] sql = new String[TIERS.length];
+        for (int i = 0; i < TIERS.length; i++) {
+            sql[i] = String.format(POST_CHUNK_SQL, amount, operator, condition, aggregates, TIERS[i]);
+        }
+        return sql;
+    }
+
+    private static boolean sameValue(BigDecimal left, BigDecimal right) {
+        return left == null ? right == null : right != null && left.compareTo(right) == 0;
+    }
+
+    @Value
+    static class PostedTransaction {
+        long transactionId;
+        long walletId;
+        String referenceId;
+        BigDecimal amount;
+        BigDecimal balanceAfter;
+    }
+}
@@ -0,0 +1,128 @@
+package service.impl;
+
+import config.IdempotencyProperties;
+import entity.WalletTransaction;
+import exception.DuplicateTransactionException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.IdempotencyKeyRepository;
+import repository.WalletTransactionRepository;
+import service.IdempotencyService;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final String PARTITION_PREFIX = "idempotency_keys_";
+
+    // MD5 is used purely as a well-distributed 128-bit fingerprint, and matches Postgres md5() for set-based writers
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    });
+
+    private final IdempotencyKeyRepository keyRepository;
+    private final WalletTransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<WalletTransaction> findExisting(String referenceId, Instant requestedAt) {
+        int bucket = currentBucket();
+        int minBucket = bucket - properties.getRetentionDays();
+
+        // Keys older than the retained partitions are gone from the store, so only then is the ledger asked
+        if (requestedAt != null && bucketOf(requestedAt) < minBucket) {
+            return transactionRepository.findByReferenceId(referenceId);
+        }
+
+        long[] key = hash(referenceId);
+        Optional<WalletTransaction> existing = keyRepository.findTransactionId(key[0], key[1], minBucket, bucket)
+                .flatMap(transactionRepository::findById)
+                .filter(transaction -> transaction.getReferenceId().equals(referenceId));
+
+        // Without requestedAt a miss may still be a retry whose key has expired, so the ledger has the last word
+        if (existing.isEmpty() && requestedAt == null) {
+            return transactionRepository.findByReferenceId(referenceId);
+        }
+        return existing;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(WalletTransaction transaction) {
+        long[] key = hash(transaction.getReferenceId());
+        int bucket = currentBucket();
+
+        keyRepository.lockKey(key[0]);
+        int inserted = keyRepository.insertIfAbsent(key[0], key[1], bucket,
+                bucket - properties.getRetentionDays(), transaction.getId());
+        if (inserted == 0) {
+            throw new DuplicateTransactionException("Duplicate transaction: " + transaction.getReferenceId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.idempotency.maintenance-interval-ms:3600000}")
+    @Transactional
+    public void maintainPartitions() {
+        int today = currentBucket();
+
+        for (int bucket = today; bucket <= today + properties.getPartitionsAhead(); bucket++) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + PARTITION_PREFIX + bucket
+                    + " PARTITION OF idempotency_keys FOR VALUES IN (" + bucket + ")");
+        }
+
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'idempotency_keys'",
+                String.class);
+
+        int minBucket = today - properties.getRetentionDays();
+        for (String partition : partitions) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            int bucket = Integer.parseInt(partition.substring(PARTITION_PREFIX.length()));
+            if (bucket < minBucket) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired idempotency partition: {}", partition);
+            }
+        }
+    }
+
+    static int currentBucket() {
+        return (int) LocalDate.now(ZoneOffset.UTC).toEpochDay();
+    }
+
+    static int bucketOf(Instant instant) {
+        return (int) LocalDate.ofInstant(instant, ZoneOffset.UTC).toEpochDay();
+    }
+
+    static long[] hash(String referenceId) {
+        MessageDigest digest = MD5.get();
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(referenceId.getBytes(StandardCharsets.UTF_8)));
+        return new long[]{hash.getLong(), hash.getLong()};
+    }
+}
@@ -0,0 +1,214 @@
+package service.impl;
+
+import config.JournalProperties;
+import dto.*;
+import entity.WalletTransaction;
+import exception.DuplicateTransactionException;
+import exception.WalletNotFoundException;
+import jakarta.annotation.PreDestroy;
+import journal.CreditJournal;
+import journal.JournalEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import repository.JournalDeadLetterRepository;
+import service.WalletService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Degraded-mode front for {@link WalletServiceImpl}. When the database cannot be reached, credits are
+ * appended to the local {@link CreditJournal} and acknowledged as PENDING; they are replayed through
+ * the normal credit path, which is idempotent on referenceId, once the database answers again.
+ * Debits and reads are never journaled because they need the current balance.
+ * <p>
+ * A credit that fails on the database also switches to the journal, but that failure only surfaces after
+ * the pool's connection-timeout. A scheduled probe therefore runs {@code SELECT 1} on its own thread and
+ * switches as soon as it fails or does not answer within {@code ewallet.journal.probe-timeout-ms}.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "ewallet.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class JournalingWalletService implements WalletService {
+
+    private static final int MAX_REASON_LENGTH = 500;
+
+    private final WalletServiceImpl delegate;
+    private final CreditJournal creditJournal;
+    private final JdbcTemplate jdbcTemplate;
+    private final JournalDeadLetterRepository deadLetterRepository;
+    private final JournalProperties properties;
+
+    private final ExecutorService prober = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-database-probe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> probe;
+
+    private volatile boolean degraded;
+
+    @Override
+    public WalletResponse createWallet(CreateWalletRequest request) {
+        return delegate.createWallet(request);
+    }
+
+    @Override
+    public WalletResponse getWalletBalance(Long walletId) {
+        return delegate.getWalletBalance(walletId);
+    }
+
+    @Override
+    public TransactionResponse creditWallet(Long walletId, TransactionRequest request) {
+        if (!degraded) {
+            try {
+                return delegate.creditWallet(walletId, request);
+            } catch (CannotCreateTransactionException | DataAccessResourceFailureException
+                     | QueryTimeoutException e) {
+                log.error("Database unavailable, switching credits to journal: {}", e.getMessage());
+                degraded = true;
+            }
+        }
+        return journalCredit(walletId, request);
+    }
+
+    @Override
+    public TransactionResponse debitWallet(Long walletId, TransactionRequest request) {
+        return delegate.debitWallet(walletId, request);
+    }
+
+    @Override
+    public Page<TransactionResponse> getTransactionHistory(Long walletId, Pageable pageable) {
+        return delegate.getTransactionHistory(walletId, pageable);
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.journal.probe-interval-ms:1000}")
+    public void probeDatabase() {
+        if (!degraded && !databaseReachable()) {
+            log.error("Database probe failed, switching credits to journal");
+            degraded = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.journal.replay-interval-ms:5000}")
+    public void replayJournal() {
+        if (!degraded && creditJournal.pendingCount() == 0) {
+            return;
+        }
+
+        if (!databaseReachable()) {
+            log.warn("Database still unavailable, journal replay deferred: pending={}", creditJournal.pendingCount());
+            return;
+        }
+
+        // New credits go straight to the database again; replayed entries that race with client retries
+        // are absorbed by the referenceId idempotency check
+        degraded = false;
+
+        try {
+            int replayed = creditJournal.replay(this::applyJournalEntry);
+            if (replayed > 0) {
+                log.info("Replayed journaled credits: count={}", replayed);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read credit journal", e);
+        } catch (RuntimeException e) {
+            log.error("Journal replay interrupted, will resume from checkpoint: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prober.shutdownNow();
+    }
+
+    // A probe that hangs is not abandoned: later checks wait on the same one rather than piling up connections
+    private synchronized boolean databaseReachable() {
+        if (probe == null || probe.isDone()) {
+            probe = prober.submit(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        }
+        try {
+            probe.get(properties.getProbeTimeoutMs(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void applyJournalEntry(JournalEntry entry) {
+        TransactionRequest request = TransactionRequest.builder()
+                .referenceId(entry.getReferenceId())
+                .amount(entry.getAmount())
+                .description(entry.getDescription())
+                .requestedAt(Instant.ofEpochMilli(entry.getCreatedAtMillis()))
+                .build();
+        try {
+            delegate.creditWallet(entry.getWalletId(), request);
+        } catch (DuplicateTransactionException e) {
+            // A client retry posted the same referenceId first
+            log.debug("Journaled credit already posted: sequence={}, referenceId={}",
+                    entry.getSequence(), entry.getReferenceId());
+        } catch (WalletNotFoundException | IllegalStateException | IllegalArgumentException e) {
+            // Business rejection is permanent; retrying would block the rest of the journal. The client was
+            // already told PENDING, so the entry is kept for reconciliation. If this insert fails the replay
+            // stops here and the entry is retried.
+            log.error("Journaled credit rejected: sequence={}, walletId={}, referenceId={}, reason={}",
+                    entry.getSequence(), entry.getWalletId(), entry.getReferenceId(), e.getMessage());
+            deadLetterRepository.insert(entry.getSequence(), entry.getWalletId(), entry.getAmount(),
+                    entry.getReferenceId(), entry.getDescription(),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getCreatedAtMillis()), ZoneId.systemDefault()),
+                    truncate(e.getMessage()));
+        }
+    }
+
+    private static String truncate(String reason) {
+        if (reason == null) {
+            return "unknown";
+        }
+        return reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH);
+    }
+
+    private TransactionResponse journalCredit(Long walletId, TransactionRequest request) {
+        try {
+            long sequence = creditJournal.append(walletId, request.getAmount(), request.getReferenceId(),
+                    request.getDescription());
+            log.warn("Credit journaled for later posting: sequence={}, walletId={}, referenceId={}",
+                    sequence, walletId, request.getReferenceId());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal credit: " + request.getReferenceId(), e);
+        }
+
+        return TransactionResponse.builder()
+                .referenceId(request.getReferenceId())
+                .transactionType(WalletTransaction.TransactionType.CREDIT.name())
+                .amount(request.getAmount())
+                .description(request.getDescription())
+                .status(WalletTransaction.TransactionStatus.PENDING.name())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
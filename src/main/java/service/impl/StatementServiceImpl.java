@@ -0,0 +1,140 @@
+package service.impl;
+
+import dto.BalanceAtResponse;
+import entity.WalletTransaction;
+import exception.WalletNotFoundException;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import repository.WalletRepository;
+import repository.WalletTransactionRepository;
+import service.StatementService;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatementServiceImpl implements StatementService {
+
+    private final WalletRepository walletRepository;
+    private final WalletTransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public BalanceAtResponse getBalanceAt(Long walletId, LocalDateTime at) {
+        log.debug("Fetching point-in-time balance: walletId={}, at={}", walletId, at);
+
+        String currency = findCurrency(walletId);
+
+        // Every ledger row carries balanceAfter, so the latest row at or before the instant is the answer
+        WalletTransaction last = transactionRepository
+                .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescIdDesc(walletId, at)
+                .orElse(null);
+
+        return BalanceAtResponse.builder()
+                .walletId(walletId)
+                .at(at)
+                .balance(last != null ? last.getBalanceAfter() : BigDecimal.ZERO)
+                .currency(currency)
+                .lastTransactionId(last != null ? last.getId() : null)
+                .lastTransactionAt(last != null ? last.getCreatedAt() : null)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void validateStatementRequest(Long walletId, LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        findCurrency(walletId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeStatement(Long walletId, LocalDate fromDate, LocalDate toDate, OutputStream output) {
+        log.info("Generating statement: walletId={}, from={}, to={}", walletId, fromDate, toDate);
+
+        String currency = findCurrency(walletId);
+        LocalDateTime fromTime = fromDate.atStartOfDay();
+        LocalDateTime toTime = toDate.plusDays(1).atStartOfDay();
+
+        BigDecimal openingBalance = transactionRepository
+                .findFirstByWalletIdAndCreatedAtBeforeOrderByCreatedAtDescIdDesc(walletId, fromTime)
+                .map(WalletTransaction::getBalanceAfter)
+                .orElse(BigDecimal.ZERO);
+
+        BigDecimal closingBalance = openingBalance;
+        BigDecimal totalCredits = BigDecimal.ZERO;
+        BigDecimal totalDebits = BigDecimal.ZERO;
+        long lineCount = 0;
+
+        try {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.write("walletId," + walletId + "\n");
+            writer.write("currency," + currency + "\n");
+            writer.write("periodFrom," + fromDate + "\n");
+            writer.write("periodTo," + toDate + "\n");
+            writer.write("openingBalance," + openingBalance.toPlainString() + "\n");
+            writer.write("\ntransactionId,createdAt,referenceId,type,amount,balanceAfter,description\n");
+
+            // Rows are read through a server-side cursor and detached once written, so memory stays flat
+            try (Stream<WalletTransaction> transactions =
+                         transactionRepository.streamByWalletIdAndPeriod(walletId, fromTime, toTime)) {
+                Iterator<WalletTransaction> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    WalletTransaction transaction = iterator.next();
+                    if (transaction.getTransactionType() == WalletTransaction.TransactionType.CREDIT) {
+                        totalCredits = totalCredits.add(transaction.getAmount());
+                    } else {
+                        totalDebits = totalDebits.add(transaction.getAmount());
+                    }
+                    closingBalance = transaction.getBalanceAfter();
+                    lineCount++;
+
+                    writer.write(transaction.getId() + "," + transaction.getCreatedAt() + ","
+                            + csvValue(transaction.getReferenceId()) + "," + transaction.getTransactionType() + ","
+                            + transaction.getAmount().toPlainString() + ","
+                            + transaction.getBalanceAfter().toPlainString() + ","
+                            + csvValue(transaction.getDescription()) + "\n");
+                    entityManager.detach(transaction);
+                }
+            }
+
+            writer.write("\ntotalCredits," + totalCredits.toPlainString() + "\n");
+            writer.write("totalDebits," + totalDebits.toPlainString() + "\n");
+            writer.write("closingBalance," + closingBalance.toPlainString() + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write statement for wallet " + walletId, e);
+        }
+
+        log.info("Statement generated: walletId={}, lines={}", walletId, lineCount);
+    }
+
+    // Statements are read-only, so an archived wallet is read in place rather than moved back to the hot tier
+    private String findCurrency(Long walletId) {
+        return walletRepository.findCurrencyAnyTier(walletId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,87 @@
+package service.impl;
+
+import dto.WalletAggregateResponse;
+import entity.WalletTransaction;
+import exception.WalletNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import repository.WalletDailyAggregateRepository;
+import repository.WalletRepository;
+import service.WalletAggregateService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletAggregateServiceImpl implements WalletAggregateService {
+
+    private final WalletDailyAggregateRepository aggregateRepository;
+    private final WalletRepository walletRepository;
+
+    // Runs inside the caller's credit/debit transaction so the rollup commits or rolls back with the ledger row
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransaction(WalletTransaction transaction) {
+        boolean credit = transaction.getTransactionType() == WalletTransaction.TransactionType.CREDIT;
+        BigDecimal amount = transaction.getAmount();
+        BigDecimal before = transaction.getBalanceBefore();
+        BigDecimal after = transaction.getBalanceAfter();
+        LocalDateTime createdAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+
+        aggregateRepository.upsert(
+                transaction.getWalletId(),
+                createdAt.toLocalDate(),
+                credit ? amount : BigDecimal.ZERO,
+                credit ? BigDecimal.ZERO : amount,
+                credit ? 1L : 0L,
+                credit ? 0L : 1L,
+                before.min(after),
+                before.max(after));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public WalletAggregateResponse getAggregates(Long walletId, LocalDate fromDate, LocalDate toDate) {
+        log.debug("Fetching wallet aggregates: walletId={}, from={}, to={}", walletId, fromDate, toDate);
+
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+
+        if (!walletRepository.existsByIdAnyTier(walletId)) {
+            throw new WalletNotFoundException("Wallet not found: " + walletId);
+        }
+
+        WalletDailyAggregateRepository.AggregateTotals totals =
+                aggregateRepository.sumByWalletIdAndDateRange(walletId, fromDate, toDate);
+
+        BigDecimal creditTotal = orZero(totals.getCreditTotal());
+        BigDecimal debitTotal = orZero(totals.getDebitTotal());
+        long creditCount = totals.getCreditCount() != null ? totals.getCreditCount() : 0L;
+        long debitCount = totals.getDebitCount() != null ? totals.getDebitCount() : 0L;
+
+        return WalletAggregateResponse.builder()
+                .walletId(walletId)
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .creditTotal(creditTotal)
+                .debitTotal(debitTotal)
+                .netChange(creditTotal.subtract(debitTotal))
+                .creditCount(creditCount)
+                .debitCount(debitCount)
+                .transactionCount(creditCount + debitCount)
+                .minBalance(totals.getMinBalance())
+                .maxBalance(totals.getMaxBalance())
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
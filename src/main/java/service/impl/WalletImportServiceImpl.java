@@ -0,0 +1,248 @@
+package service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.WalletImportProperties;
+import dto.CreateWalletRequest;
+import dto.WalletImportResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import service.WalletImportService;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletImportServiceImpl implements WalletImportService {
+
+    // One statement per batch: arrays are unnested server side, user_ids are claimed in wallet_user_ids
+    // (which covers both wallet tiers) and only claimed ones get a wallet; RETURNING tells us exactly which
+    // rows were inserted
+    private static final String INSERT_SQL = """
+            WITH input AS (
+                SELECT r.user_id, r.currency
+                FROM unnest(?::varchar[], ?::varchar[]) AS r(user_id, currency)
+            ),
+            claimed AS (
+                INSERT INTO wallet_user_ids (user_id, created_at)
+                SELECT user_id, now() FROM input
+                ON CONFLICT (user_id) DO NOTHING
+                RETURNING user_id
+            )
+            INSERT INTO wallets (user_id, balance, currency, status, version, created_at, updated_at)
+            SELECT i.user_id, 0, i.currency, 'ACTIVE', 0, now(), now()
+            FROM input i JOIN claimed c ON c.user_id = i.user_id
+            ON CONFLICT (user_id) DO NOTHING
+            RETURNING user_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final WalletImportProperties properties;
+
+    @Override
+    public WalletImportResponse importWallets(InputStream input, ImportFormat format) {
+        String importId = UUID.randomUUID().toString();
+        long startTime = System.currentTimeMillis();
+        log.info("Starting wallet import: importId={}, format={}", importId, format);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ImportCounters counters = new ImportCounters();
+        Path resultFile = Paths.get(properties.getResultDir(), "wallet-import-" + importId + ".csv");
+
+        try {
+            Files.createDirectories(resultFile.getParent());
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+                 BufferedWriter writer = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)) {
+
+                writer.write("line,userId,status,message");
+                writer.newLine();
+
+                List<ImportRow> batch = new ArrayList<>(properties.getBatchSize());
+                String line;
+                long lineNumber = 0;
+
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && isCsvHeader(format, line))) {
+                        continue;
+                    }
+
+                    batch.add(new ImportRow(lineNumber, line));
+                    if (batch.size() >= properties.getBatchSize()) {
+                        processBatch(batch, format, transactionTemplate, writer, counters);
+                        batch.clear();
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    processBatch(batch, format, transactionTemplate, writer, counters);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Wallet import failed: " + importId, e);
+        }
+
+        long durationMs = System.currentTimeMillis() - startTime;
+        log.info("Wallet import completed: importId={}, total={}, created={}, skipped={}, failed={}, durationMs={}",
+                importId, counters.total, counters.created, counters.skipped, counters.failed, durationMs);
+
+        return WalletImportResponse.builder()
+                .importId(importId)
+                .totalRows(counters.total)
+                .createdCount(counters.created)
+                .skippedCount(counters.skipped)
+                .failedCount(counters.failed)
+                .resultFile(resultFile.toString())
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private void processBatch(List<ImportRow> batch, ImportFormat format, TransactionTemplate transactionTemplate,
+                              BufferedWriter writer, ImportCounters counters) throws IOException {
+        // Parsing and bean validation are CPU bound and independent per row
+        batch.parallelStream().forEach(row -> parseAndValidate(row, format));
+
+        // Only the first row of a userId reaches the insert, so it decides the currency and is the one reported
+        // CREATED; the statement would otherwise keep an arbitrary one of them
+        Map<String, Long> firstLines = new HashMap<>();
+        List<ImportRow> validRows = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            if (row.error != null) {
+                continue;
+            }
+            Long firstLine = firstLines.putIfAbsent(row.request.getUserId(), row.lineNumber);
+            if (firstLine != null) {
+                row.duplicateOf = firstLine;
+            } else {
+                validRows.add(row);
+            }
+        }
+
+        Set<String> insertedUserIds = validRows.isEmpty()
+                ? new HashSet<String>()
+                : new HashSet<>(transactionTemplate.execute(status -> insertBatch(validRows)));
+
+        for (ImportRow row : batch) {
+            counters.total++;
+            String status;
+            String message;
+
+            if (row.error != null) {
+                status = "FAILED";
+                message = row.error;
+                counters.failed++;
+            } else if (row.duplicateOf != null) {
+                status = "SKIPPED";
+                message = "Duplicate of line " + row.duplicateOf;
+                counters.skipped++;
+            } else if (insertedUserIds.remove(row.request.getUserId())) {
+                status = "CREATED";
+                message = "";
+                counters.created++;
+            } else {
+                status = "SKIPPED";
+                message = "Wallet already exists for user";
+                counters.skipped++;
+            }
+
+            writer.write(row.lineNumber + "," + csvValue(row.request != null ? row.request.getUserId() : "")
+                    + "," + status + "," + csvValue(message));
+            writer.newLine();
+        }
+    }
+
+    private List<String> insertBatch(List<ImportRow> rows) {
+        String[] userIds = new String[rows.size()];
+        String[] currencies = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            userIds[i] = rows.get(i).request.getUserId();
+            currencies[i] = rows.get(i).request.getCurrency();
+        }
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", userIds));
+            ps.setArray(2, con.createArrayOf("varchar", currencies));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private void parseAndValidate(ImportRow row, ImportFormat format) {
+        try {
+            row.request = format == ImportFormat.NDJSON
+                    ? objectMapper.readValue(row.raw, CreateWalletRequest.class)
+                    : parseCsv(row.raw);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            row.error = "Malformed row";
+            return;
+        }
+
+        Set<ConstraintViolation<CreateWalletRequest>> violations = validator.validate(row.request);
+        if (!violations.isEmpty()) {
+            row.error = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+    }
+
+    private static CreateWalletRequest parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 2) {
+            throw new IllegalArgumentException("Expected 2 columns");
+        }
+        return CreateWalletRequest.builder()
+                .userId(columns[0].trim())
+                .currency(columns[1].trim())
+                .build();
+    }
+
+    private static boolean isCsvHeader(ImportFormat format, String line) {
+        return format == ImportFormat.CSV && line.trim().toLowerCase(Locale.ROOT).startsWith("userid");
+    }
+
+    private static String csvValue(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static class ImportRow {
+        private final long lineNumber;
+        private final String raw;
+        private CreateWalletRequest request;
+        private String error;
+        private Long duplicateOf;
+
+        private ImportRow(long lineNumber, String raw) {
+            this.lineNumber = lineNumber;
+            this.raw = raw;
+        }
+    }
+
+    private static class ImportCounters {
+        private long total;
+        private long created;
+        private long skipped;
+        private long failed;
+    }
+}
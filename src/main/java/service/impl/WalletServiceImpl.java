@@ -1,5 +1,7 @@
 package service.impl;
 
+import audit.AuditEvent;
+import audit.AuditLogger;
 import dto.CreateWalletRequest;
 import dto.TransactionRequest;
 import dto.TransactionResponse;
@@ -19,7 +21,10 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import repository.WalletRepository;
 import repository.WalletTransactionRepository;
+import service.IdempotencyService;
+import service.WalletAggregateService;
 import service.WalletService;
+import velocity.VelocityLimiter;
 
 import java.math.BigDecimal;
 
@@ -31,6 +36,10 @@ public class WalletServiceImpl implements WalletService {
 
     private final WalletRepository walletRepository;
     private final WalletTransactionRepository transactionRepository;
+    private final WalletAggregateService aggregateService;
+    private final IdempotencyService idempotencyService;
+    private final AuditLogger auditLogger;
+    private final VelocityLimiter velocityLimiter;
 
     private static final int MAX_RETRY_ATTEMPTS = 3;
 
@@ -39,7 +48,7 @@ public class WalletServiceImpl implements WalletService {
     public WalletResponse createWallet(CreateWalletRequest request) {
         log.info("Creating wallet for user: {}", request.getUserId());
 
-        if (walletRepository.existsByUserId(request.getUserId())) {
+        if (walletRepository.claimUserId(request.getUserId()) == 0) {
             throw new DataIntegrityViolationException("Wallet already exists for user: " + request.getUserId());
         }
 
@@ -62,7 +71,7 @@ public class WalletServiceImpl implements WalletService {
     public WalletResponse getWalletBalance(Long walletId) {
         log.debug("Fetching wallet balance: ID={}", walletId);
 
-        Wallet wallet = walletRepository.findById(walletId)
+        Wallet wallet = walletRepository.findByIdAnyTier(walletId)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
 
         return WalletResponse.fromEntity(wallet);
@@ -81,11 +90,11 @@ public class WalletServiceImpl implements WalletService {
     }
 
     private TransactionResponse processCreditTransaction(Long walletId, TransactionRequest request) {
-        log.info("Processing credit transaction: walletId={}, referenceId={}", walletId, request.getReferenceId());
+        auditLogger.debug(AuditEvent.CREDIT_REQUESTED, walletId, request.getReferenceId());
 
         // Idempotency check
-        WalletTransaction existingTransaction = transactionRepository
-                .findByReferenceId(request.getReferenceId())
+        WalletTransaction existingTransaction = idempotencyService
+                .findExisting(request.getReferenceId(), request.getRequestedAt())
                 .orElse(null);
 
         if (existingTransaction != null) {
@@ -121,18 +130,20 @@ public class WalletServiceImpl implements WalletService {
                 .build();
 
         WalletTransaction savedTransaction = transactionRepository.save(transaction);
-        log.info("Credit transaction completed: transactionId={}, newBalance={}",
-                savedTransaction.getId(), balanceAfter);
+        idempotencyService.record(savedTransaction);
+        aggregateService.recordTransaction(savedTransaction);
+        auditLogger.moneyMovementAfterCommit(AuditEvent.CREDIT_POSTED, walletId, savedTransaction.getId(),
+                request.getReferenceId(), request.getAmount(), balanceAfter);
 
         return TransactionResponse.fromEntity(savedTransaction);
     }
 
     private TransactionResponse processDebitTransaction(Long walletId, TransactionRequest request) {
-        log.info("Processing debit transaction: walletId={}, referenceId={}", walletId, request.getReferenceId());
+        auditLogger.debug(AuditEvent.DEBIT_REQUESTED, walletId, request.getReferenceId());
 
         // Idempotency check
-        WalletTransaction existingTransaction = transactionRepository
-                .findByReferenceId(request.getReferenceId())
+        WalletTransaction existingTransaction = idempotencyService
+                .findExisting(request.getReferenceId(), request.getRequestedAt())
                 .orElse(null);
 
         if (existingTransaction != null) {
@@ -140,6 +151,19 @@ public class WalletServiceImpl implements WalletService {
             return TransactionResponse.fromEntity(existingTransaction);
         }
 
+        // Velocity limits are checked in memory before the wallet row is read or locked
+        VelocityLimiter.Reservation reservation = velocityLimiter.reserve(walletId, request.getAmount());
+        try {
+            TransactionResponse response = postDebit(walletId, request);
+            reservation.releaseOnRollback();
+            return response;
+        } catch (RuntimeException e) {
+            reservation.release();
+            throw e;
+        }
+    }
+
+    private TransactionResponse postDebit(Long walletId, TransactionRequest request) {
         // Fetch wallet with optimistic lock
         Wallet wallet = walletRepository.findByIdWithLock(walletId)
                 .orElseThrow(() -> new WalletNotFoundException("Wallet not found: " + walletId));
@@ -175,8 +199,10 @@ public class WalletServiceImpl implements WalletService {
                 .build();
 
         WalletTransaction savedTransaction = transactionRepository.save(transaction);
-        log.info("Debit transaction completed: transactionId={}, newBalance={}",
-                savedTransaction.getId(), balanceAfter);
+        idempotencyService.record(savedTransaction);
+        aggregateService.recordTransaction(savedTransaction);
+        auditLogger.moneyMovementAfterCommit(AuditEvent.DEBIT_POSTED, walletId, savedTransaction.getId(),
+                request.getReferenceId(), request.getAmount(), balanceAfter);
 
         return TransactionResponse.fromEntity(savedTransaction);
     }
@@ -187,7 +213,7 @@ public class WalletServiceImpl implements WalletService {
         log.debug("Fetching transaction history: walletId={}", walletId);
 
         // Verify wallet exists
-        if (!walletRepository.existsById(walletId)) {
+        if (!walletRepository.existsByIdAnyTier(walletId)) {
             throw new WalletNotFoundException("Wallet not found: " + walletId);
         }
 
@@ -0,0 +1,42 @@
+package service.impl;
+
+import config.WalletTieringProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import repository.WalletRepository;
+import repository.WalletTierRepository;
+import service.WalletTieringService;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletTieringServiceImpl implements WalletTieringService {
+
+    private final WalletRepository walletRepository;
+    private final WalletTieringProperties properties;
+
+    // Each batch commits on its own so the hot table is never locked for the whole sweep
+    @Override
+    @Scheduled(cron = "${ewallet.tiering.cron:0 0 3 * * *}")
+    public int archiveWallets() {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+
+        LocalDateTime dormantBefore = LocalDateTime.now().minusDays(properties.getDormantDays());
+        int total = 0;
+        long afterId = 0;
+        WalletTierRepository.ArchiveBatch batch;
+        while ((batch = walletRepository.archive(dormantBefore, afterId, properties.getBatchSize())) != null) {
+            total += batch.getMoved();
+            afterId = batch.getLastId();
+        }
+
+        log.info("Wallet tiering completed: archived={}, dormantBefore={}", total, dormantBefore);
+        return total;
+    }
+}
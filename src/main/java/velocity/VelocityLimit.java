@@ -0,0 +1,8 @@
+package velocity;
+
+public enum VelocityLimit {
+    HOURLY_AMOUNT,
+    HOURLY_COUNT,
+    DAILY_AMOUNT,
+    DAILY_COUNT
+}
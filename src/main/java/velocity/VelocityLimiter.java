@@ -0,0 +1,313 @@
+package velocity;
+
+import config.VelocityLimitProperties;
+import exception.VelocityLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-wallet hourly and daily debit limits kept in memory, so the debit path never has to sum the
+ * ledger. Wallets are spread over independently locked {@link VelocityTable} stripes.
+ * <p>
+ * A debit reserves its amount before the wallet row is read; the reservation is kept when the
+ * transaction commits and released if it fails or rolls back. On startup the windows are rebuilt
+ * from the last day of DEBIT rows in {@code wallet_transactions}.
+ * <p>
+ * Limits apply per wallet across all instances, but a live reservation is only seen by the instance that
+ * made it. Once a five-minute bucket has been closed for a full bucket, {@link #reconcile()} replaces it in
+ * every window with the committed debits of all instances from the ledger, the same rows the startup rebuild
+ * reads. The windows are therefore exact up to the last two buckets, which hold only this instance's own
+ * debits: another instance's debits are missed for at most ten minutes plus the reconcile interval, and a
+ * debit that commits more than five minutes after its bucket closed is not counted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityLimiter {
+
+    private static final long BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int AMOUNT_SCALE = 4;
+    private static final int REBUILD_FETCH_SIZE = 10000;
+
+    // Buckets younger than this many closed buckets are still filled only by live reservations
+    private static final int SETTLE_LAG_BUCKETS = 1;
+
+    // Fee debits from bulk posting runs are not customer debits and are not counted on the live path either
+    private static final String REBUILD_SQL = """
+            SELECT t.wallet_id, t.amount, t.created_at
+            FROM wallet_transactions t
+            WHERE t.transaction_type = 'DEBIT' AND t.status = 'SUCCESS' AND t.created_at >= ?
+              AND NOT EXISTS (
+                  SELECT 1 FROM posting_runs p WHERE t.reference_id = p.run_id || ':' || t.wallet_id
+              )
+            """;
+
+    private static final String SETTLE_SQL = REBUILD_SQL + "  AND t.created_at < ?\n";
+
+    private final VelocityLimitProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private VelocityTable[] stripes;
+    private int stripeMask;
+    private long hourlyAmountLimit;
+    private long dailyAmountLimit;
+    // Buckets up to this one hold ledger totals; releasing a reservation in them would undo a committed debit
+    private volatile int settledBucket;
+    private final Map<VelocityLimit, Counter> rejections = new EnumMap<>(VelocityLimit.class);
+
+    // Runs before the web server starts, so no debit can slip past a half-built window
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        int stripeCount = properties.getStripes();
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalStateException("ewallet.velocity.stripes must be a power of two: " + stripeCount);
+        }
+        stripes = new VelocityTable[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new VelocityTable(0);
+        }
+        stripeMask = stripeCount - 1;
+        hourlyAmountLimit = toUnscaled(properties.getHourlyAmount());
+        dailyAmountLimit = toUnscaled(properties.getDailyAmount());
+
+        for (VelocityLimit limit : VelocityLimit.values()) {
+            rejections.put(limit, Counter.builder("ewallet.velocity.rejected")
+                    .tag("limit", limit.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("ewallet.velocity.wallets", this, VelocityLimiter::trackedWallets).register(meterRegistry);
+
+        rebuild();
+    }
+
+    /**
+     * Reserves the debit against the wallet's windows.
+     *
+     * @throws VelocityLimitExceededException if the debit would exceed a configured limit
+     */
+    public Reservation reserve(Long walletId, BigDecimal amount) {
+        if (stripes == null) {
+            return Reservation.NONE;
+        }
+
+        long unscaled = toUnscaled(amount);
+        int bucket = bucketOf(System.currentTimeMillis());
+        VelocityTable table = stripeFor(walletId);
+
+        VelocityLimit breached;
+        synchronized (table) {
+            breached = table.tryAdd(walletId, bucket, unscaled,
+                    hourlyAmountLimit, properties.getHourlyCount(),
+                    dailyAmountLimit, properties.getDailyCount());
+        }
+
+        if (breached != null) {
+            rejections.get(breached).increment();
+            throw new VelocityLimitExceededException(
+                    "Debit velocity limit exceeded for wallet " + walletId + ": " + breached);
+        }
+        return new Reservation(this, walletId, bucket, unscaled);
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.velocity.eviction-interval-ms:600000}")
+    public void evictIdle() {
+        if (stripes == null) {
+            return;
+        }
+
+        int bucket = bucketOf(System.currentTimeMillis());
+        int evicted = 0;
+        for (VelocityTable table : stripes) {
+            synchronized (table) {
+                evicted += table.evictIdle(bucket);
+            }
+        }
+        log.debug("Velocity windows evicted: wallets={}", evicted);
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.velocity.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        if (stripes == null) {
+            return;
+        }
+
+        int target = bucketOf(System.currentTimeMillis()) - SETTLE_LAG_BUCKETS - 1;
+        // Older buckets have left the hourly ring and can no longer be separated from their hour
+        for (int bucket = Math.max(settledBucket + 1, target - VelocityTable.HOUR_SLOTS + 1); bucket <= target;
+             bucket++) {
+            settle(bucket);
+        }
+    }
+
+    // Replaces the bucket in every window with the ledger's debits, taking one stripe lock at a time
+    void settle(int bucket) {
+        long started = System.nanoTime();
+        long from = bucket * BUCKET_MILLIS;
+        List<List<long[]>> debits = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            debits.add(new ArrayList<>());
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SETTLE_SQL);
+            statement.setFetchSize(REBUILD_FETCH_SIZE);
+            statement.setTimestamp(1, new Timestamp(from));
+            statement.setTimestamp(2, new Timestamp(from + BUCKET_MILLIS));
+            return statement;
+        }, resultSet -> {
+            long walletId = resultSet.getLong(1);
+            debits.get(stripeIndex(walletId)).add(new long[]{walletId, toUnscaled(resultSet.getBigDecimal(2))});
+        });
+
+        // Set first: a reservation released from here on is already covered by the ledger, or was cleared
+        settledBucket = bucket;
+        int rows = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            VelocityTable table = stripes[i];
+            synchronized (table) {
+                table.clearBucket(bucket);
+                for (long[] debit : debits.get(i)) {
+                    table.add(debit[0], bucket, debit[1], 1);
+                }
+            }
+            rows += debits.get(i).size();
+        }
+        log.debug("Velocity bucket settled: bucket={}, debits={}, tookMs={}",
+                bucket, rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void rebuild() {
+        long started = System.nanoTime();
+        // The rebuild reads the ledger up to now, so the buckets it covers count as settled
+        settledBucket = bucketOf(System.currentTimeMillis()) - SETTLE_LAG_BUCKETS - 1;
+        LocalDateTime since = LocalDateTime.now().minusHours(VelocityTable.DAY_SLOTS + 1);
+        long[] rows = new long[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REBUILD_SQL);
+            statement.setFetchSize(REBUILD_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.valueOf(since));
+            return statement;
+        }, resultSet -> {
+            long walletId = resultSet.getLong(1);
+            long amount = toUnscaled(resultSet.getBigDecimal(2));
+            long createdAt = resultSet.getTimestamp(3).toLocalDateTime()
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            VelocityTable table = stripeFor(walletId);
+            synchronized (table) {
+                table.add(walletId, bucketOf(createdAt), amount, 1);
+            }
+            rows[0]++;
+        });
+
+        log.info("Velocity windows rebuilt: debits={}, wallets={}, tookMs={}",
+                rows[0], trackedWallets(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private void release(long walletId, int bucket, long unscaled) {
+        VelocityTable table = stripeFor(walletId);
+        synchronized (table) {
+            if (bucket > settledBucket) {
+                table.add(walletId, bucket, -unscaled, -1);
+            }
+        }
+    }
+
+    private double trackedWallets() {
+        long total = 0;
+        for (VelocityTable table : stripes) {
+            synchronized (table) {
+                total += table.size();
+            }
+        }
+        return total;
+    }
+
+    private VelocityTable stripeFor(long walletId) {
+        return stripes[stripeIndex(walletId)];
+    }
+
+    private int stripeIndex(long walletId) {
+        long h = walletId * 0xC2B2AE3D27D4EB4FL;
+        return (int) (h >>> 40) & stripeMask;
+    }
+
+    static int bucketOf(long epochMillis) {
+        return (int) (epochMillis / BUCKET_MILLIS);
+    }
+
+    // Rounded up so fractional amounts never slip under a limit
+    private static long toUnscaled(BigDecimal amount) {
+        return amount.setScale(AMOUNT_SCALE, RoundingMode.UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * A debit counted against a wallet's windows. Release it if the debit fails before its
+     * transaction ends, otherwise hand it to {@link #releaseOnRollback()}.
+     */
+    public static final class Reservation {
+
+        static final Reservation NONE = new Reservation(null, 0L, 0, 0L);
+
+        private final VelocityLimiter limiter;
+        private final long walletId;
+        private final int bucket;
+        private final long unscaled;
+        private boolean released;
+
+        private Reservation(VelocityLimiter limiter, long walletId, int bucket, long unscaled) {
+            this.limiter = limiter;
+            this.walletId = walletId;
+            this.bucket = bucket;
+            this.unscaled = unscaled;
+        }
+
+        public void release() {
+            if (limiter == null || released) {
+                return;
+            }
+            released = true;
+            limiter.release(walletId, bucket, unscaled);
+        }
+
+        public void releaseOnRollback() {
+            if (limiter == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package velocity;
+
+/**
+ * Open-addressing table of per-wallet debit windows keyed by primitive wallet id. Row data lives in
+ * flat parallel arrays, so a wallet costs a few hundred bytes and no per-wallet objects.
+ * <p>
+ * Each row holds two rings: {@link #HOUR_SLOTS} five-minute buckets for the hourly window and
+ * {@link #DAY_SLOTS} one-hour buckets for the daily window. Buckets are addressed by their number
+ * since the epoch and cleared lazily when the ring head moves past them.
+ * <p>
+ * Not thread-safe; callers guard each table with its stripe lock.
+ */
+final class VelocityTable {
+
+    static final int HOUR_SLOTS = 12;
+    static final int DAY_SLOTS = 24;
+    static final int BUCKETS_PER_HOUR = 12;
+
+    // Wallet ids are identity values starting at 1, so 0 marks a free slot
+    private static final long FREE = 0L;
+    private static final int ROW_SLOTS = HOUR_SLOTS + DAY_SLOTS;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] amounts;
+    private int[] counts;
+    private int[] hourHeads;
+    private int[] dayHeads;
+    private int mask;
+    private int size;
+
+    VelocityTable(int expectedWallets) {
+        allocate(capacityFor(expectedWallets));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the debit to the wallet's windows unless it would exceed one of the limits, in which case
+     * nothing is recorded. A limit of zero or less is not enforced.
+     *
+     * @return the breached limit, or {@code null} if the debit was recorded
+     */
+    VelocityLimit tryAdd(long walletId, int bucket, long amount,
+                         long hourlyAmountLimit, int hourlyCountLimit,
+                         long dailyAmountLimit, int dailyCountLimit) {
+        int row = findOrInsert(walletId);
+        advance(row, bucket);
+
+        int base = row * ROW_SLOTS;
+        long hourAmount = 0;
+        int hourCount = 0;
+        for (int i = base; i < base + HOUR_SLOTS; i++) {
+            hourAmount += amounts[i];
+            hourCount += counts[i];
+        }
+        long dayAmount = 0;
+        int dayCount = 0;
+        for (int i = base + HOUR_SLOTS; i < base + ROW_SLOTS; i++) {
+            dayAmount += amounts[i];
+            dayCount += counts[i];
+        }
+
+        if (hourlyCountLimit > 0 && hourCount + 1 > hourlyCountLimit) {
+            return VelocityLimit.HOURLY_COUNT;
+        }
+        if (hourlyAmountLimit > 0 && hourAmount + amount > hourlyAmountLimit) {
+            return VelocityLimit.HOURLY_AMOUNT;
+        }
+        if (dailyCountLimit > 0 && dayCount + 1 > dailyCountLimit) {
+            return VelocityLimit.DAILY_COUNT;
+        }
+        if (dailyAmountLimit > 0 && dayAmount + amount > dailyAmountLimit) {
+            return VelocityLimit.DAILY_AMOUNT;
+        }
+
+        record(row, bucket, amount, 1);
+        return null;
+    }
+
+    /**
+     * Records a debit without checking limits, e.g. when rebuilding from the ledger. A negative
+     * amount and count undo an earlier {@link #tryAdd}; buckets that already left a window are
+     * skipped.
+     */
+    void add(long walletId, int bucket, long amount, int count) {
+        int row = count < 0 ? find(walletId) : findOrInsert(walletId);
+        if (row < 0) {
+            return;
+        }
+        advance(row, bucket);
+        record(row, bucket, amount, count);
+    }
+
+    /**
+     * Removes one five-minute bucket from every wallet's windows, so it can be recorded again from the
+     * ledger with {@link #add}. Buckets that already left the hourly ring are left as they are.
+     */
+    void clearBucket(int bucket) {
+        int hour = bucket / BUCKETS_PER_HOUR;
+        for (int row = 0; row < keys.length; row++) {
+            // A row whose head is behind the bucket has nothing in it yet; the slot may still hold an old bucket
+            if (keys[row] == FREE || bucket > hourHeads[row] || bucket <= hourHeads[row] - HOUR_SLOTS) {
+                continue;
+            }
+            int base = row * ROW_SLOTS;
+            int slot = base + Math.floorMod(bucket, HOUR_SLOTS);
+            int daySlot = base + HOUR_SLOTS + Math.floorMod(hour, DAY_SLOTS);
+            amounts[daySlot] -= amounts[slot];
+            counts[daySlot] -= counts[slot];
+            amounts[slot] = 0;
+            counts[slot] = 0;
+        }
+    }
+
+    /**
+     * Drops wallets without any debit in the daily window and shrinks the arrays to fit.
+     *
+     * @return the number of wallets removed
+     */
+    int evictIdle(int bucket) {
+        int oldestHour = bucket / BUCKETS_PER_HOUR - DAY_SLOTS + 1;
+
+        long[] oldKeys = keys;
+        long[] oldAmounts = amounts;
+        int[] oldCounts = counts;
+        int[] oldHourHeads = hourHeads;
+        int[] oldDayHeads = dayHeads;
+
+        int retained = 0;
+        for (int row = 0; row < oldKeys.length; row++) {
+            if (oldKeys[row] != FREE && oldDayHeads[row] >= oldestHour) {
+                retained++;
+            }
+        }
+        int removed = size - retained;
+
+        allocate(capacityFor(retained));
+        for (int row = 0; row < oldKeys.length; row++) {
+            if (oldKeys[row] == FREE || oldDayHeads[row] < oldestHour) {
+                continue;
+            }
+            int target = insertSlot(oldKeys[row]);
+            System.arraycopy(oldAmounts, row * ROW_SLOTS, amounts, target * ROW_SLOTS, ROW_SLOTS);
+            System.arraycopy(oldCounts, row * ROW_SLOTS, counts, target * ROW_SLOTS, ROW_SLOTS);
+            hourHeads[target] = oldHourHeads[row];
+            dayHeads[target] = oldDayHeads[row];
+            advance(target, bucket);
+        }
+        return removed;
+    }
+
+    private void record(int row, int bucket, long amount, int count) {
+        int base = row * ROW_SLOTS;
+        if (bucket > hourHeads[row] - HOUR_SLOTS) {
+            int slot = base + Math.floorMod(bucket, HOUR_SLOTS);
+            amounts[slot] += amount;
+            counts[slot] += count;
+        }
+        int hour = bucket / BUCKETS_PER_HOUR;
+        if (hour > dayHeads[row] - DAY_SLOTS) {
+            int slot = base + HOUR_SLOTS + Math.floorMod(hour, DAY_SLOTS);
+            amounts[slot] += amount;
+            counts[slot] += count;
+        }
+    }
+
+    // Moves both ring heads forward to the given bucket, clearing the slots they pass over
+    private void advance(int row, int bucket) {
+        int base = row * ROW_SLOTS;
+
+        int hourHead = hourHeads[row];
+        if (bucket > hourHead) {
+            int from = Math.max(hourHead + 1, bucket - HOUR_SLOTS + 1);
+            for (int b = from; b <= bucket; b++) {
+                int slot = base + Math.floorMod(b, HOUR_SLOTS);
+                amounts[slot] = 0;
+                counts[slot] = 0;
+            }
+            hourHeads[row] = bucket;
+        }
+
+        int hour = bucket / BUCKETS_PER_HOUR;
+        int dayHead = dayHeads[row];
+        if (hour > dayHead) {
+            int from = Math.max(dayHead + 1, hour - DAY_SLOTS + 1);
+            for (int h = from; h <= hour; h++) {
+                int slot = base + HOUR_SLOTS + Math.floorMod(h, DAY_SLOTS);
+                amounts[slot] = 0;
+                counts[slot] = 0;
+            }
+            dayHeads[row] = hour;
+        }
+    }
+
+    private int find(long walletId) {
+        int row = hash(walletId) & mask;
+        while (keys[row] != FREE) {
+            if (keys[row] == walletId) {
+                return row;
+            }
+            row = (row + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int findOrInsert(long walletId) {
+        int row = find(walletId);
+        if (row >= 0) {
+            return row;
+        }
+        if (size + 1 > keys.length * 3 / 4) {
+            grow();
+        }
+        return insertSlot(walletId);
+    }
+
+    // New rows start with heads far in the past so the first advance treats every slot as expired
+    private int insertSlot(long walletId) {
+        int row = hash(walletId) & mask;
+        while (keys[row] != FREE) {
+            row = (row + 1) & mask;
+        }
+        keys[row] = walletId;
+        hourHeads[row] = Integer.MIN_VALUE / 2;
+        dayHeads[row] = Integer.MIN_VALUE / 2;
+        size++;
+        return row;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldAmounts = amounts;
+        int[] oldCounts = counts;
+        int[] oldHourHeads = hourHeads;
+        int[] oldDayHeads = dayHeads;
+
+        allocate(oldKeys.length * 2);
+        for (int row = 0; row < oldKeys.length; row++) {
+            if (oldKeys[row] == FREE) {
+                continue;
+            }
+            int target = insertSlot(oldKeys[row]);
+            System.arraycopy(oldAmounts, row * ROW_SLOTS, amounts, target * ROW_SLOTS, ROW_SLOTS);
+            System.arraycopy(oldCounts, row * ROW_SLOTS, counts, target * ROW_SLOTS, ROW_SLOTS);
+            hourHeads[target] = oldHourHeads[row];
+            dayHeads[target] = oldDayHeads[row];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        amounts = new long[capacity * ROW_SLOTS];
+        counts = new int[capacity * ROW_SLOTS];
+        hourHeads = new int[capacity];
+        dayHeads = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static int capacityFor(int wallets) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < wallets + 1) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long walletId) {
+        long h = walletId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
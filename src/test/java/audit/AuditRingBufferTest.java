@@ -0,0 +1,248 @@
+package audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditRingBufferTest {
+
+    private static final byte TYPE = AuditEvent.CREDIT_POSTED.getCode();
+
+    @Test
+    void drainsRecordsInSequenceOrder() {
+        AuditRingBuffer ring = new AuditRingBuffer(8);
+        for (int i = 0; i < 3; i++) {
+            long sequence = ring.tryClaim();
+            assertEquals(i, sequence);
+            publish(ring, sequence);
+        }
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(3, ring.drain(collect(drained)));
+
+        assertEquals(List.of(0L, 1L, 2L), drained);
+        assertEquals(0, ring.depth());
+    }
+
+    @Test
+    void drainStopsAtFirstUnpublishedSequence() {
+        AuditRingBuffer ring = new AuditRingBuffer(8);
+        long first = ring.tryClaim();
+        long second = ring.tryClaim();
+        long third = ring.tryClaim();
+        publish(ring, second);
+        publish(ring, third);
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(0, ring.drain(collect(drained)));
+        assertEquals(3, ring.depth());
+
+        publish(ring, first);
+        assertEquals(3, ring.drain(collect(drained)));
+        assertEquals(List.of(first, second, third), drained);
+    }
+
+    @Test
+    void fullRingRejectsClaimsUntilDrained() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            publish(ring, ring.tryClaim());
+        }
+
+        assertEquals(-1, ring.tryClaim());
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(4, ring.drain(collect(drained)));
+        assertEquals(4, ring.tryClaim());
+    }
+
+    @Test
+    void slotsAreReusedAfterWraparound() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        List<Long> drained = new ArrayList<>();
+
+        for (int round = 0; round < 10; round++) {
+            long first = ring.tryClaim();
+            long second = ring.tryClaim();
+            long third = ring.tryClaim();
+            publish(ring, third);
+            publish(ring, first);
+            publish(ring, second);
+            assertEquals(3, ring.drain(collect(drained)));
+        }
+
+        assertEquals(30, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i).longValue());
+        }
+    }
+
+    @Test
+    void unpublishedSlotFromPreviousLapIsNotDrained() {
+        AuditRingBuffer ring = new AuditRingBuffer(2);
+        List<Long> drained = new ArrayList<>();
+        publish(ring, ring.tryClaim());
+        publish(ring, ring.tryClaim());
+        assertEquals(2, ring.drain(collect(drained)));
+
+        // Slot 0 still holds sequence 0 from the previous lap; sequence 2 is claimed but not yet published
+        long sequence = ring.tryClaim();
+        assertEquals(2, sequence);
+        assertEquals(0, ring.drain(collect(drained)));
+
+        publish(ring, sequence);
+        assertEquals(1, ring.drain(collect(drained)));
+        assertEquals(List.of(0L, 1L, 2L), drained);
+    }
+
+    @Test
+    void concurrentProducersPublishEveryRecordExactlyOnce() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        AuditRingBuffer ring = new AuditRingBuffer(1024);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long walletId = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence;
+                    while ((sequence = ring.tryClaim()) < 0) {
+                        Thread.onSpinWait();
+                    }
+                    ring.publish(sequence, i, TYPE, walletId, i, 0, 0, null);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        long[] total = new long[1];
+        AuditRingBuffer.RecordSink sink = (timestamp, type, walletId, transactionId, amount, balance, referenceId) -> {
+            // Each producer publishes its own records in order, so the consumer must see them in that order too
+            assertEquals(lastPerProducer[(int) walletId] + 1, transactionId);
+            lastPerProducer[(int) walletId] = transactionId;
+            total[0]++;
+        };
+
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (total[0] < (long) producers * perProducer && System.nanoTime() < deadline) {
+            if (ring.drain(sink) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals((long) producers * perProducer, total[0]);
+        assertEquals(0, ring.depth());
+    }
+
+    @Test
+    void closedRingRejectsClaimsButDrainsThoseMadeBefore() {
+        AuditRingBuffer ring = new AuditRingBuffer(8);
+        long first = ring.tryClaim();
+        long second = ring.tryClaim();
+        publish(ring, first);
+
+        assertEquals(second, ring.close());
+        assertEquals(-1, ring.tryClaim());
+        assertEquals(2, ring.depth());
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(1, ring.drain(collect(drained)));
+        publish(ring, second);
+        assertEquals(1, ring.drain(collect(drained)));
+        assertEquals(List.of(first, second), drained);
+        assertEquals(0, ring.depth());
+        assertEquals(second, ring.close());
+    }
+
+    @Test
+    void everyClaimMadeBeforeCloseIsDrained() throws InterruptedException {
+        int producers = 4;
+        AuditRingBuffer ring = new AuditRingBuffer(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] claims = new long[producers];
+        AtomicBoolean closed = new AtomicBoolean();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (true) {
+                    long sequence = ring.tryClaim();
+                    if (sequence < 0) {
+                        // The logger would write this one to the application log instead
+                        if (closed.get()) {
+                            return;
+                        }
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    ring.publish(sequence, sequence, TYPE, producer, sequence, 0, 0, null);
+                    claims[producer]++;
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] total = new long[1];
+        AuditRingBuffer.RecordSink sink = (timestamp, type, walletId, transactionId, amount, balance, referenceId) ->
+                total[0]++;
+        start.countDown();
+        while (total[0] < 100_000) {
+            ring.drain(sink);
+        }
+        ring.close();
+        closed.set(true);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (ring.depth() > 0 && System.nanoTime() < deadline) {
+            ring.drain(sink);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(Arrays.stream(claims).sum(), total[0]);
+        assertEquals(0, ring.drain(sink));
+    }
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer(6));
+    }
+
+    private static void publish(AuditRingBuffer ring, long sequence) {
+        ring.publish(sequence, sequence, TYPE, 1L, sequence, 0, 0, "ref-" + sequence);
+    }
+
+    private static AuditRingBuffer.RecordSink collect(List<Long> sequences) {
+        return (timestamp, type, walletId, transactionId, amount, balance, referenceId) -> sequences.add(transactionId);
+    }
+}
@@ -0,0 +1,156 @@
+package ingest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares REST and binary ingest throughput against a running instance.
+ * Server CPU is sampled from the actuator {@code process.cpu.usage} metric while each phase runs.
+ * Credits are spread round-robin over {@code wallets} consecutive ids starting at {@code firstWalletId},
+ * so the run measures ingest rather than contention on one wallet row; only successful responses count
+ * towards throughput.
+ * <p>
+ * Usage: {@code BinaryIngestBenchmark <host> <httpPort> <binaryPort> <firstWalletId> <wallets> [requests] [concurrency]}
+ */
+public class BinaryIngestBenchmark {
+
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    public static void main(String[] args) throws Exception {
+        String host = args[0];
+        int httpPort = Integer.parseInt(args[1]);
+        int binaryPort = Integer.parseInt(args[2]);
+        long firstWalletId = Long.parseLong(args[3]);
+        int wallets = Integer.parseInt(args[4]);
+        int requests = args.length > 5 ? Integer.parseInt(args[5]) : 100_000;
+        int concurrency = args.length > 6 ? Integer.parseInt(args[6]) : 256;
+
+        HttpClient http = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(concurrency)).build();
+        String baseUrl = "http://" + host + ":" + httpPort;
+        int cpuCount = (int) readMetric(http, baseUrl, "system.cpu.count");
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        report("REST", requests, cpuCount, measure(http, baseUrl, () -> runRest(http, baseUrl, firstWalletId, wallets,
+                runId, requests, concurrency)));
+        report("Binary", requests, cpuCount, measure(http, baseUrl, () -> runBinary(host, binaryPort, firstWalletId,
+                wallets, runId, requests, concurrency)));
+        System.exit(0);
+    }
+
+    private static long runRest(HttpClient http, String baseUrl, long firstWalletId, int wallets, String runId,
+                                int requests, int concurrency) throws Exception {
+        Semaphore window = new Semaphore(concurrency);
+        AtomicLong succeeded = new AtomicLong();
+        List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            window.acquire();
+            long walletId = firstWalletId + i % wallets;
+            String body = "{\"referenceId\":\"rest-" + runId + "-" + i + "\",\"amount\":" + AMOUNT + "}";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/wallets/" + walletId + "/credit"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            futures.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (response != null && response.statusCode() / 100 == 2) {
+                            succeeded.incrementAndGet();
+                        }
+                        window.release();
+                    }));
+        }
+        // Failed requests are already left out of the count, so their exceptions are not rethrown
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(error -> null).join();
+        return succeeded.get();
+    }
+
+    private static long runBinary(String host, int port, long firstWalletId, int wallets, String runId,
+                                  int requests, int concurrency) throws Exception {
+        try (BinaryIngestClient client = new BinaryIngestClient(host, port)) {
+            Semaphore window = new Semaphore(concurrency);
+            AtomicLong succeeded = new AtomicLong();
+            List<CompletableFuture<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                window.acquire();
+                long walletId = firstWalletId + i % wallets;
+                futures.add(client.credit(walletId, AMOUNT, "bin-" + runId + "-" + i, null)
+                        .whenComplete((response, error) -> {
+                            if (response != null && response.isOk()) {
+                                succeeded.incrementAndGet();
+                            }
+                            window.release();
+                        }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(error -> null).join();
+            return succeeded.get();
+        }
+    }
+
+    private static Result measure(HttpClient http, String baseUrl, Phase phase) throws Exception {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        List<Double> samples = new CopyOnWriteArrayList<>();
+        sampler.scheduleAtFixedRate(() -> {
+            try {
+                samples.add(readMetric(http, baseUrl, "process.cpu.usage"));
+            } catch (Exception ignored) {
+                // Sampling is best effort
+            }
+        }, 250, 500, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long succeeded = phase.run();
+        long elapsedNanos = System.nanoTime() - start;
+        sampler.shutdownNow();
+
+        double averageCpu = samples.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+        return new Result(elapsedNanos, averageCpu, succeeded);
+    }
+
+    private static void report(String name, int requests, int cpuCount, Result result) {
+        double seconds = result.elapsedNanos / 1e9;
+        // process.cpu.usage is normalised across all cores
+        double cpuMicrosPerRequest = result.averageCpu * cpuCount * seconds * 1e6 / result.succeeded;
+        System.out.printf("%-6s %,d of %,d requests succeeded in %.2fs: %,.0f req/s, %.1f%% server CPU, "
+                        + "%.1f us CPU/request%n",
+                name, result.succeeded, requests, seconds, result.succeeded / seconds, result.averageCpu * 100,
+                cpuMicrosPerRequest);
+    }
+
+    private static double readMetric(HttpClient http, String baseUrl, String metric) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric)).GET().build();
+        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = METRIC_VALUE.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Metric not available: " + metric);
+        }
+        return Double.parseDouble(matcher.group(1));
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        // Returns the number of successful requests
+        long run() throws Exception;
+    }
+
+    private static final class Result {
+        private final long elapsedNanos;
+        private final double averageCpu;
+        private final long succeeded;
+
+        private Result(long elapsedNanos, double averageCpu, long succeeded) {
+            this.elapsedNanos = elapsedNanos;
+            this.averageCpu = averageCpu;
+            this.succeeded = succeeded;
+        }
+    }
+}
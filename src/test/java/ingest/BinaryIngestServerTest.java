@@ -0,0 +1,125 @@
+package ingest;
+
+import config.BinaryIngestProperties;
+import dto.TransactionRequest;
+import dto.TransactionResponse;
+import exception.WalletNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.WalletService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BinaryIngestServerTest {
+
+    private static final int MAX_FRAME_SIZE = 256;
+
+    private final WalletService walletService = mock(WalletService.class);
+    private BinaryIngestServer server;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        BinaryIngestProperties properties = new BinaryIngestProperties();
+        properties.setPort(port);
+        properties.setWorkerThreads(2);
+        properties.setMaxFrameSize(MAX_FRAME_SIZE);
+        server = new BinaryIngestServer(walletService, properties);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void nonAsciiReferenceReachesTheService() throws Exception {
+        when(walletService.creditWallet(eq(1L), any(TransactionRequest.class))).thenReturn(TransactionResponse.builder()
+                .transactionId(10L)
+                .balanceAfter(new BigDecimal("5"))
+                .status("SUCCESS")
+                .build());
+
+        try (BinaryIngestClient client = new BinaryIngestClient("localhost", port)) {
+            BinaryResponse response = client.credit(1L, new BigDecimal("5"), "réf-1", "Café")
+                    .get(5, TimeUnit.SECONDS);
+
+            assertTrue(response.isOk(), response.getMessage());
+            assertEquals(10L, response.getTransactionId());
+        }
+        verify(walletService).creditWallet(eq(1L), argThat(request ->
+                request.getReferenceId().equals("réf-1") && request.getDescription().equals("Café")));
+    }
+
+    @Test
+    void invalidRequestIsRejectedAndTheConnectionStaysUsable() throws Exception {
+        try (BinaryIngestClient client = new BinaryIngestClient("localhost", port)) {
+            BinaryResponse longReference = client.debit(1L, new BigDecimal("5"), "r".repeat(51), null)
+                    .get(5, TimeUnit.SECONDS);
+            BinaryResponse tinyAmount = client.debit(1L, new BigDecimal("0.001"), "ref-2", null)
+                    .get(5, TimeUnit.SECONDS);
+
+            assertEquals(BinaryProtocol.STATUS_REJECTED, longReference.getStatus());
+            assertEquals(BinaryProtocol.STATUS_REJECTED, tinyAmount.getStatus());
+            verifyNoInteractions(walletService);
+
+            when(walletService.getWalletBalance(1L)).thenThrow(new WalletNotFoundException("missing"));
+            assertEquals(BinaryProtocol.STATUS_NOT_FOUND, client.balance(1L).get(5, TimeUnit.SECONDS).getStatus());
+        }
+    }
+
+    @Test
+    void oversizedFrameClosesTheConnection() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write(ByteBuffer.allocate(Integer.BYTES).putInt(MAX_FRAME_SIZE + 1).array());
+
+            assertClosed(socket);
+        }
+    }
+
+    @Test
+    void stringRunningPastItsFrameClosesTheConnection() throws Exception {
+        ByteBuffer frame = BinaryProtocol.encodeTransactionRequest(BinaryProtocol.OP_CREDIT, 1L, 1L,
+                new BigDecimal("5"), "ref-1", "description");
+        // Shrink the declared frame so the description length points past its end
+        frame.putInt(0, frame.getInt(0) - 4);
+        byte[] bytes = new byte[frame.remaining() - 4];
+        frame.get(bytes);
+
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream output = socket.getOutputStream();
+            output.write(bytes);
+            // The next frame's bytes must not be read as the rest of the description
+            output.write(BinaryProtocol.encodeBalanceRequest(2L, 1L).array());
+
+            assertClosed(socket);
+        }
+        verifyNoInteractions(walletService);
+    }
+
+    private static void assertClosed(Socket socket) throws IOException {
+        socket.setSoTimeout(5000);
+        InputStream input = socket.getInputStream();
+        try {
+            assertEquals(-1, input.read());
+        } catch (SocketException e) {
+            // Reset because the server closed with our bytes still unread, which is just as closed
+        }
+    }
+}
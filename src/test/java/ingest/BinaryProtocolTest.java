@@ -0,0 +1,98 @@
+package ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryProtocolTest {
+
+    @Test
+    void transactionRequestRoundTripsNonAsciiStrings() {
+        ByteBuffer frame = BinaryProtocol.encodeTransactionRequest(BinaryProtocol.OP_DEBIT, 7L, 42L,
+                new BigDecimal("12.3456"), "réf-ü-1", "Café ☕");
+
+        BinaryRequest request = BinaryProtocol.decodeRequest(body(frame));
+
+        assertEquals(BinaryProtocol.OP_DEBIT, request.getOpcode());
+        assertEquals(7L, request.getCorrelationId());
+        assertEquals(42L, request.getWalletId());
+        assertEquals(new BigDecimal("12.3456"), request.getAmount());
+        assertEquals("réf-ü-1", request.getReferenceId());
+        assertEquals("Café ☕", request.getDescription());
+    }
+
+    @Test
+    void missingDescriptionDecodesAsNull() {
+        ByteBuffer frame = BinaryProtocol.encodeTransactionRequest(BinaryProtocol.OP_CREDIT, 1L, 2L,
+                new BigDecimal("1"), "ref-1", null);
+
+        BinaryRequest request = BinaryProtocol.decodeRequest(body(frame));
+
+        assertEquals(10_000L, request.getUnscaledAmount());
+        assertNull(request.getDescription());
+    }
+
+    @Test
+    void balanceRequestRoundTrips() {
+        BinaryRequest request = BinaryProtocol.decodeRequest(body(BinaryProtocol.encodeBalanceRequest(3L, 9L)));
+
+        assertEquals(BinaryProtocol.OP_BALANCE, request.getOpcode());
+        assertEquals(3L, request.getCorrelationId());
+        assertEquals(9L, request.getWalletId());
+        assertNull(request.getReferenceId());
+    }
+
+    @Test
+    void okResponseRoundTrips() {
+        BinaryResponse response = BinaryProtocol.decodeResponse(
+                body(BinaryProtocol.encodeOk(5L, 77L, new BigDecimal("99.5"))));
+
+        assertTrue(response.isOk());
+        assertEquals(5L, response.getCorrelationId());
+        assertEquals(77L, response.getTransactionId());
+        assertEquals(0, new BigDecimal("99.5").compareTo(response.getBalance()));
+    }
+
+    @Test
+    void errorAndAcceptedResponsesCarryTheirMessage() {
+        BinaryResponse error = BinaryProtocol.decodeResponse(
+                body(BinaryProtocol.encodeError(5L, BinaryProtocol.STATUS_NOT_FOUND, "Wallet nicht gefunden: ü")));
+        assertEquals(BinaryProtocol.STATUS_NOT_FOUND, error.getStatus());
+        assertEquals(BinaryProtocol.NO_TRANSACTION, error.getTransactionId());
+        assertEquals("Wallet nicht gefunden: ü", error.getMessage());
+
+        BinaryResponse accepted = BinaryProtocol.decodeResponse(body(BinaryProtocol.encodeAccepted(6L)));
+        assertTrue(accepted.isAccepted());
+        assertNull(accepted.getBalance());
+    }
+
+    @Test
+    void stringRunningPastTheFrameIsRejected() {
+        ByteBuffer frame = BinaryProtocol.encodeTransactionRequest(BinaryProtocol.OP_CREDIT, 1L, 2L,
+                new BigDecimal("1"), "ref-1", "description");
+        ByteBuffer body = body(frame);
+        // Cut the frame inside the description, as the server does with the frame limit
+        body.limit(body.limit() - 4);
+
+        assertThrows(BufferUnderflowException.class, () -> BinaryProtocol.decodeRequest(body));
+    }
+
+    @Test
+    void stringTooLongForItsLengthFieldIsNotEncoded() {
+        String description = "x".repeat(0x10000);
+
+        assertThrows(IllegalArgumentException.class, () -> BinaryProtocol.encodeTransactionRequest(
+                BinaryProtocol.OP_CREDIT, 1L, 2L, new BigDecimal("1"), "ref-1", description));
+    }
+
+    // Checks the length prefix and positions the buffer at the body, as both readers do
+    private static ByteBuffer body(ByteBuffer frame) {
+        int length = frame.getInt();
+        assertEquals(length, frame.remaining());
+        return frame;
+    }
+}
@@ -0,0 +1,59 @@
+package journal;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures durable append throughput and latency of {@link CreditJournal}.
+ * <p>
+ * Usage: {@code CreditJournalBenchmark [directory] [threads] [appendsPerThread] [syncIntervalMs]}
+ */
+public class CreditJournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : Files.createTempDirectory("credit-journal-bench");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int appendsPerThread = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long syncIntervalMs = args.length > 3 ? Long.parseLong(args[3]) : 2;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong totalLatencyNanos = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        BigDecimal amount = new BigDecimal("12.3400");
+
+        try (CreditJournal journal = new CreditJournal(directory, 64L * 1024 * 1024, syncIntervalMs)) {
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    try {
+                        for (int i = 0; i < appendsPerThread; i++) {
+                            long appendStart = System.nanoTime();
+                            journal.append(thread, amount, "bench-" + thread + "-" + i, "benchmark credit");
+                            totalLatencyNanos.addAndGet(System.nanoTime() - appendStart);
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            long elapsedNanos = System.nanoTime() - start;
+
+            long appends = (long) threads * appendsPerThread;
+            System.out.printf("%,d durable appends from %d threads in %.2fs: %,.0f appends/s, %.1f us mean latency%n",
+                    appends, threads, elapsedNanos / 1e9, appends / (elapsedNanos / 1e9),
+                    totalLatencyNanos.get() / 1e3 / appends);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
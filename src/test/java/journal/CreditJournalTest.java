@@ -0,0 +1,213 @@
+package journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditJournalTest {
+
+    private static final long SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendedCreditsSurviveReopen() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(1L, new BigDecimal("10.50"), "ref-1", "first");
+            journal.append(2L, new BigDecimal("0.0001"), "ref-2", null);
+        }
+
+        try (CreditJournal journal = open()) {
+            List<JournalEntry> entries = replayAll(journal);
+
+            assertEquals(2, entries.size());
+            assertEquals(1L, entries.get(0).getSequence());
+            assertEquals(1L, entries.get(0).getWalletId());
+            assertEquals(0, new BigDecimal("10.50").compareTo(entries.get(0).getAmount()));
+            assertEquals("ref-1", entries.get(0).getReferenceId());
+            assertEquals("first", entries.get(0).getDescription());
+            assertEquals("ref-2", entries.get(1).getReferenceId());
+            assertNull(entries.get(1).getDescription());
+            assertEquals(0, journal.pendingCount());
+        }
+    }
+
+    @Test
+    void nonAsciiReferenceIdsAreReplayedUnchanged() throws IOException {
+        // Under a lossy encoding both would replay as "order-?" and the second credit would be deduplicated away
+        try (CreditJournal journal = open()) {
+            journal.append(1L, BigDecimal.ONE, "order-\u00e9", null);
+            journal.append(1L, BigDecimal.ONE, "order-\u00fc", null);
+        }
+
+        try (CreditJournal journal = open()) {
+            List<JournalEntry> entries = replayAll(journal);
+
+            assertEquals(2, entries.size());
+            assertEquals("order-\u00e9", entries.get(0).getReferenceId());
+            assertEquals("order-\u00fc", entries.get(1).getReferenceId());
+        }
+    }
+
+    @Test
+    void recordTornByCrashIsDiscardedOnRecovery() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(1L, BigDecimal.ONE, "ref-1", null);
+            journal.append(1L, BigDecimal.TEN, "ref-2", null);
+        }
+
+        // Kill mid-write: the second record's payload never fully reached the disk
+        Path segment = singleSegment();
+        int secondRecord = recordLength(segment, 0);
+        corruptByte(segment, secondRecord + CreditJournal.HEADER_SIZE + 20);
+
+        try (CreditJournal journal = open()) {
+            assertEquals(1, journal.pendingCount());
+            assertEquals(2L, journal.append(1L, new BigDecimal("3"), "ref-3", null));
+        }
+
+        try (CreditJournal journal = open()) {
+            List<JournalEntry> entries = replayAll(journal);
+            assertEquals(List.of("ref-1", "ref-3"), entries.stream().map(JournalEntry::getReferenceId).toList());
+        }
+    }
+
+    @Test
+    void partiallyWrittenHeaderIsDiscardedOnRecovery() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(1L, BigDecimal.ONE, "ref-1", null);
+        }
+
+        Path segment = singleSegment();
+        int tail = recordLength(segment, 0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(CreditJournal.MAGIC).putInt(Integer.MAX_VALUE).flip(), tail);
+        }
+
+        try (CreditJournal journal = open()) {
+            journal.append(1L, BigDecimal.TEN, "ref-2", null);
+        }
+
+        try (CreditJournal journal = open()) {
+            List<JournalEntry> entries = replayAll(journal);
+            assertEquals(List.of("ref-1", "ref-2"), entries.stream().map(JournalEntry::getReferenceId).toList());
+        }
+    }
+
+    @Test
+    void replayAfterCrashBeforeCheckpointRedeliversEntries() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(1L, new BigDecimal("5"), "ref-1", null);
+            journal.append(1L, new BigDecimal("7"), "ref-2", null);
+            journal.append(2L, new BigDecimal("9"), "ref-3", null);
+        }
+
+        List<String> delivered = new ArrayList<>();
+        try (CreditJournal journal = open()) {
+            assertEquals(3, journal.replay(entry -> delivered.add(entry.getReferenceId())));
+        }
+
+        // Crash after the credits were applied but before the checkpoint was persisted; deduplication is
+        // left to the handler (see JournalingWalletServiceTest)
+        Files.delete(directory.resolve("checkpoint"));
+
+        try (CreditJournal journal = open()) {
+            assertEquals(3, journal.pendingCount());
+            assertEquals(3, journal.replay(entry -> delivered.add(entry.getReferenceId())));
+        }
+
+        assertEquals(List.of("ref-1", "ref-2", "ref-3", "ref-1", "ref-2", "ref-3"), delivered);
+    }
+
+    @Test
+    void failedReplayResumesAfterLastAppliedEntry() throws IOException {
+        List<String> applied = new ArrayList<>();
+        try (CreditJournal journal = open()) {
+            journal.append(1L, BigDecimal.ONE, "ref-1", null);
+            journal.append(1L, BigDecimal.ONE, "ref-2", null);
+            journal.append(1L, BigDecimal.ONE, "ref-3", null);
+
+            assertThrows(IllegalStateException.class, () -> journal.replay(entry -> {
+                if (entry.getReferenceId().equals("ref-2")) {
+                    throw new IllegalStateException("Database unavailable");
+                }
+                applied.add(entry.getReferenceId());
+            }));
+            assertEquals(2, journal.pendingCount());
+        }
+
+        try (CreditJournal journal = open()) {
+            journal.replay(entry -> applied.add(entry.getReferenceId()));
+        }
+
+        assertEquals(List.of("ref-1", "ref-2", "ref-3"), applied);
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesFullyReplayedOnes() throws IOException {
+        try (CreditJournal journal = new CreditJournal(directory, 256, 0)) {
+            for (int i = 0; i < 20; i++) {
+                journal.append(i, BigDecimal.ONE, "ref-" + i, null);
+            }
+            assertTrue(segments().size() > 1);
+
+            assertEquals(20, replayAll(journal).size());
+            assertEquals(1, segments().size());
+
+            journal.append(99L, BigDecimal.ONE, "ref-99", null);
+            assertEquals(1, journal.pendingCount());
+        }
+    }
+
+    private CreditJournal open() throws IOException {
+        return new CreditJournal(directory, SEGMENT_SIZE, 0);
+    }
+
+    private static List<JournalEntry> replayAll(CreditJournal journal) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.replay(entries::add);
+        return entries;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).toList();
+        }
+    }
+
+    private Path singleSegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private static int recordLength(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(CreditJournal.HEADER_SIZE);
+            channel.read(header, offset);
+            return CreditJournal.HEADER_SIZE + header.getInt(4);
+        }
+    }
+
+    private static void corruptByte(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, offset);
+            value.put(0, (byte) ~value.get(0)).rewind();
+            channel.write(value, offset);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package repository;
+
+import entity.WalletDailyAggregate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class WalletDailyAggregateRepositoryTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 12);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private WalletDailyAggregateRepository repository;
+
+    @Test
+    void upsertAccumulatesPostingsOfTheSameDay() {
+        credit(1L, MONDAY, "10", "0");
+        debit(1L, MONDAY, "4", "10");
+        credit(1L, MONDAY, "1", "6");
+
+        assertEquals(1, repository.count());
+        WalletDailyAggregate aggregate = repository.findAll().get(0);
+        assertEquals(MONDAY, aggregate.getAggregateDate());
+        assertAmount("11", aggregate.getCreditTotal());
+        assertAmount("4", aggregate.getDebitTotal());
+        assertEquals(2L, aggregate.getCreditCount());
+        assertEquals(1L, aggregate.getDebitCount());
+        assertAmount("0", aggregate.getMinBalance());
+        assertAmount("10", aggregate.getMaxBalance());
+    }
+
+    @Test
+    void rangeSumCoversOnlyTheWalletAndDaysInRange() {
+        credit(1L, MONDAY, "10", "0");
+        debit(1L, TUESDAY, "7", "10");
+        credit(1L, TUESDAY.plusDays(1), "100", "3");
+        credit(2L, TUESDAY, "50", "0");
+
+        WalletDailyAggregateRepository.AggregateTotals monday =
+                repository.sumByWalletIdAndDateRange(1L, MONDAY, MONDAY);
+        assertAmount("10", monday.getCreditTotal());
+        assertAmount("0", monday.getDebitTotal());
+        assertEquals(1L, monday.getCreditCount());
+
+        WalletDailyAggregateRepository.AggregateTotals both =
+                repository.sumByWalletIdAndDateRange(1L, MONDAY, TUESDAY);
+        assertAmount("10", both.getCreditTotal());
+        assertAmount("7", both.getDebitTotal());
+        assertEquals(1L, both.getCreditCount());
+        assertEquals(1L, both.getDebitCount());
+        assertAmount("0", both.getMinBalance());
+        assertAmount("10", both.getMaxBalance());
+    }
+
+    @Test
+    void rangeWithoutAggregatesSumsToNulls() {
+        credit(1L, MONDAY, "10", "0");
+
+        WalletDailyAggregateRepository.AggregateTotals totals =
+                repository.sumByWalletIdAndDateRange(1L, TUESDAY, TUESDAY.plusDays(7));
+
+        assertNull(totals.getCreditTotal());
+        assertNull(totals.getCreditCount());
+        assertNull(totals.getMinBalance());
+    }
+
+    private void credit(long walletId, LocalDate date, String amount, String balanceBefore) {
+        BigDecimal before = new BigDecimal(balanceBefore);
+        BigDecimal after = before.add(new BigDecimal(amount));
+        repository.upsert(walletId, date, new BigDecimal(amount), BigDecimal.ZERO, 1L, 0L, before, after);
+    }
+
+    private void debit(long walletId, LocalDate date, String amount, String balanceBefore) {
+        BigDecimal before = new BigDecimal(balanceBefore);
+        BigDecimal after = before.subtract(new BigDecimal(amount));
+        repository.upsert(walletId, date, BigDecimal.ZERO, new BigDecimal(amount), 0L, 1L, after, before);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = WalletDailyAggregate.class)
+    @EnableJpaRepositories(basePackageClasses = WalletDailyAggregateRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WalletDailyAggregateRepository.class))
+    static class Config {
+    }
+}
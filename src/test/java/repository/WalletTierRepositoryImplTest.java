@@ -0,0 +1,236 @@
+package repository;
+
+import entity.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Moves wallets between the hot and cold tables against a real Postgres. Not transactional: archive and
+ * rehydrate commit in their own transactions and must see the rows the test set up.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.auto-commit=true",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class WalletTierRepositoryImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final LocalDateTime DORMANT_BEFORE = NOW.minusDays(30);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.execute("TRUNCATE wallets, wallets_cold, wallet_user_ids");
+    }
+
+    @Test
+    void archiveMovesClosedAndDormantWalletsInKeysetBatches() {
+        hotWallet(1L, "ACTIVE", NOW.minusDays(1));
+        hotWallet(2L, "CLOSED", NOW.minusDays(1));
+        hotWallet(3L, "ACTIVE", NOW.minusDays(90));
+        // Never updated: dormancy falls back to created_at
+        hotWallet(4L, "SUSPENDED", null);
+        hotWallet(5L, "ACTIVE", NOW);
+
+        WalletTierRepository.ArchiveBatch first = walletRepository.archive(DORMANT_BEFORE, 0L, 2);
+        assertEquals(2, first.getMoved());
+        assertEquals(3L, first.getLastId());
+
+        WalletTierRepository.ArchiveBatch second = walletRepository.archive(DORMANT_BEFORE, first.getLastId(), 2);
+        assertEquals(1, second.getMoved());
+        assertEquals(4L, second.getLastId());
+
+        assertNull(walletRepository.archive(DORMANT_BEFORE, second.getLastId(), 2));
+
+        assertEquals(List.of(1L, 5L), ids("wallets"));
+        assertEquals(List.of(2L, 3L, 4L), ids("wallets_cold"));
+        Map<String, Object> cold = jdbcTemplate.queryForMap(
+                "SELECT user_id, balance, status, version FROM wallets_cold WHERE id = 2");
+        assertEquals("user-2", cold.get("user_id"));
+        assertEquals(0, new BigDecimal("2").compareTo((BigDecimal) cold.get("balance")));
+        assertEquals("CLOSED", cold.get("status"));
+        assertEquals(2L, ((Number) cold.get("version")).longValue());
+    }
+
+    @Test
+    void archiveSkipsWalletsLockedByOnlineTraffic() throws Exception {
+        hotWallet(1L, "CLOSED", NOW);
+        hotWallet(2L, "CLOSED", NOW);
+        hotWallet(3L, "CLOSED", NOW);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery("SELECT id FROM wallets WHERE id = 2 FOR UPDATE");
+
+                WalletTierRepository.ArchiveBatch batch = walletRepository.archive(DORMANT_BEFORE, 0L, 10);
+
+                assertEquals(2, batch.getMoved());
+                assertEquals(3L, batch.getLastId());
+                assertEquals(List.of(2L), ids("wallets"));
+            } finally {
+                connection.rollback();
+            }
+        }
+
+        // The next sweep starts over and picks it up
+        assertEquals(1, walletRepository.archive(DORMANT_BEFORE, 0L, 10).getMoved());
+        assertEquals(List.of(1L, 2L, 3L), ids("wallets_cold"));
+    }
+
+    @Test
+    void rehydrateMovesTheWalletBackAndRefreshesUpdatedAt() {
+        coldWallet(7L, NOW.minusDays(400));
+
+        assertTrue(walletRepository.rehydrate(7L));
+
+        assertEquals(List.of(7L), ids("wallets"));
+        assertEquals(List.of(), ids("wallets_cold"));
+        Timestamp updatedAt = jdbcTemplate.queryForObject("SELECT updated_at FROM wallets WHERE id = 7",
+                Timestamp.class);
+        assertTrue(updatedAt.toLocalDateTime().isAfter(DORMANT_BEFORE));
+        assertFalse(walletRepository.rehydrate(7L));
+    }
+
+    @Test
+    void rehydrateByUserIdMovesOnlyThatWallet() {
+        coldWallet(7L, NOW.minusDays(400));
+        coldWallet(8L, NOW.minusDays(400));
+
+        assertTrue(walletRepository.rehydrateByUserId("user-8"));
+
+        assertEquals(List.of(8L), ids("wallets"));
+        assertEquals(List.of(7L), ids("wallets_cold"));
+    }
+
+    @Test
+    void unknownWalletIsNotFoundInEitherTier() {
+        assertFalse(walletRepository.rehydrate(99L));
+        assertFalse(walletRepository.rehydrateByUserId("user-99"));
+        assertTrue(walletRepository.findByIdAnyTier(99L).isEmpty());
+    }
+
+    @Test
+    void lookupsFallBackToTheColdTier() {
+        coldWallet(7L, NOW.minusDays(400));
+
+        Wallet wallet = walletRepository.findByIdAnyTier(7L).orElseThrow();
+
+        assertEquals("user-7", wallet.getUserId());
+        assertEquals(List.of(7L), ids("wallets"));
+    }
+
+    @Test
+    void readOnlyLookupsLeaveArchivedWalletsCold() {
+        coldWallet(7L, NOW.minusDays(400));
+
+        assertEquals("USD", walletRepository.findCurrencyAnyTier(7L).orElseThrow());
+        assertTrue(walletRepository.existsByIdAnyTier(7L));
+        assertTrue(walletRepository.findCurrencyAnyTier(99L).isEmpty());
+        assertFalse(walletRepository.existsByIdAnyTier(99L));
+
+        assertEquals(List.of(), ids("wallets"));
+        assertEquals(List.of(7L), ids("wallets_cold"));
+    }
+
+    @Test
+    void claimUserIdHoldsAcrossTiers() {
+        assertEquals(1, claim("user-1"));
+        hotWallet(1L, "CLOSED", NOW);
+        assertEquals(0, claim("user-1"));
+
+        walletRepository.archive(DORMANT_BEFORE, 0L, 10);
+        assertEquals(List.of(1L), ids("wallets_cold"));
+        assertEquals(0, claim("user-1"));
+        assertTrue(walletRepository.existsByUserId("user-1"));
+
+        walletRepository.rehydrateByUserId("user-1");
+        assertEquals(0, claim("user-1"));
+        assertFalse(walletRepository.existsByUserId("user-2"));
+    }
+
+    private int claim(String userId) {
+        Integer claimed = new TransactionTemplate(transactionManager)
+                .execute(status -> walletRepository.claimUserId(userId));
+        return claimed;
+    }
+
+    private void hotWallet(long id, String status, LocalDateTime updatedAt) {
+        LocalDateTime createdAt = updatedAt == null ? NOW.minusDays(365) : updatedAt.minusDays(1);
+        jdbcTemplate.update("INSERT INTO wallets (id, user_id, balance, currency, status, version, created_at, "
+                        + "updated_at) VALUES (?, ?, ?, 'USD', ?, ?, ?, ?)",
+                id, "user-" + id, BigDecimal.valueOf(id), status, id, createdAt, updatedAt);
+    }
+
+    private void coldWallet(long id, LocalDateTime updatedAt) {
+        jdbcTemplate.update("INSERT INTO wallets_cold (id, user_id, balance, currency, status, version, created_at, "
+                        + "updated_at, archived_at) VALUES (?, ?, ?, 'USD', 'ACTIVE', 0, ?, ?, ?)",
+                id, "user-" + id, BigDecimal.valueOf(id), updatedAt.minusDays(1), updatedAt, updatedAt);
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class);
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Wallet.class)
+    @EnableJpaRepositories(basePackageClasses = WalletRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = WalletRepository.class))
+    static class Config {
+    }
+}
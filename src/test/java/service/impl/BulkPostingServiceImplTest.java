@@ -0,0 +1,275 @@
+package service.impl;
+
+import audit.AuditEvent;
+import audit.AuditLogger;
+import config.BulkPostingProperties;
+import config.IdempotencyProperties;
+import entity.PostingRun;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import repository.PostingRunChunkRepository;
+import repository.PostingRunRepository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the chunk statements against a real Postgres, so a bind moved out of position or a broken
+ * {@code ON CONFLICT} shows up as wrong rows rather than only at deploy time.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BulkPostingServiceImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String SCHEMA = """
+            CREATE TABLE wallets (
+                id bigint PRIMARY KEY, user_id varchar(255) NOT NULL UNIQUE, balance numeric(19, 4) NOT NULL,
+                currency varchar(3) NOT NULL, status varchar(20) NOT NULL, version bigint NOT NULL,
+                created_at timestamp NOT NULL DEFAULT now(), updated_at timestamp
+            );
+            CREATE TABLE wallets_cold (
+                id bigint PRIMARY KEY, user_id varchar(255) NOT NULL UNIQUE, balance numeric(19, 4) NOT NULL,
+                currency varchar(3) NOT NULL, status varchar(20) NOT NULL, version bigint NOT NULL,
+                created_at timestamp NOT NULL DEFAULT now(), updated_at timestamp,
+                archived_at timestamp NOT NULL DEFAULT now()
+            );
+            CREATE TABLE wallet_transactions (
+                id bigserial PRIMARY KEY, wallet_id bigint NOT NULL, reference_id varchar(50) NOT NULL,
+                transaction_type varchar(20) NOT NULL, amount numeric(19, 4) NOT NULL,
+                balance_before numeric(19, 4) NOT NULL, balance_after numeric(19, 4) NOT NULL,
+                currency varchar(3) NOT NULL, description varchar(500), status varchar(20) NOT NULL,
+                created_at timestamp NOT NULL
+            );
+            CREATE TABLE idempotency_keys (
+                bucket integer NOT NULL, key_high bigint NOT NULL, key_low bigint NOT NULL,
+                transaction_id bigint NOT NULL, created_at timestamp NOT NULL,
+                PRIMARY KEY (key_high, key_low, bucket)
+            );
+            CREATE TABLE wallet_daily_aggregates (
+                id bigserial PRIMARY KEY, wallet_id bigint NOT NULL, aggregate_date date NOT NULL,
+                credit_total numeric(19, 4) NOT NULL, debit_total numeric(19, 4) NOT NULL,
+                credit_count bigint NOT NULL, debit_count bigint NOT NULL,
+                min_balance numeric(19, 4) NOT NULL, max_balance numeric(19, 4) NOT NULL, updated_at timestamp,
+                UNIQUE (wallet_id, aggregate_date)
+            );
+            CREATE TABLE posting_run_chunks (
+                run_id varchar(30) NOT NULL, chunk_start bigint NOT NULL, chunk_end bigint NOT NULL,
+                posted_count bigint NOT NULL, completed_at timestamp NOT NULL,
+                PRIMARY KEY (run_id, chunk_start)
+            );
+            """;
+
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private final AuditLogger auditLogger = mock(AuditLogger.class);
+    private final PostingRunRepository runRepository = mock(PostingRunRepository.class);
+    private BulkPostingServiceImpl service;
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(SCHEMA);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE wallets, wallets_cold, wallet_transactions, idempotency_keys, " +
+                "wallet_daily_aggregates, posting_run_chunks");
+
+        // Chunk [0, 9]: one wallet of each kind the statement has to tell apart
+        insertWallet("wallets", 1L, "100", "USD", "ACTIVE");
+        insertWallet("wallets", 2L, "3", "USD", "ACTIVE");
+        insertWallet("wallets", 3L, "100", "EUR", "ACTIVE");
+        insertWallet("wallets", 4L, "100", "USD", "SUSPENDED");
+        // Chunk [10, 19]: one hot and one archived wallet
+        insertWallet("wallets_cold", 12L, "50", "USD", "ACTIVE");
+        insertWallet("wallets", 15L, "20", "USD", "ACTIVE");
+
+        when(runRepository.save(any(PostingRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        PostingRunChunkRepository chunkRepository = mock(PostingRunChunkRepository.class);
+        when(chunkRepository.findCompletedChunkStarts(anyString())).thenAnswer(invocation -> jdbcTemplate.queryForList(
+                "SELECT chunk_start FROM posting_run_chunks WHERE run_id = ?", Long.class,
+                invocation.<String>getArgument(0)));
+
+        BulkPostingProperties properties = new BulkPostingProperties();
+        properties.setChunkSize(10);
+        properties.setParallelism(2);
+        properties.setMaxChunksPerSecond(0);
+
+        service = new BulkPostingServiceImpl(runRepository, chunkRepository, jdbcTemplate,
+                transactionTemplate.getTransactionManager(), properties, new IdempotencyProperties(), auditLogger);
+    }
+
+    @Test
+    void feeChunkBindsEveryParameterInOrder() {
+        PostingRun run = feeRun("fee-1");
+
+        List<BulkPostingServiceImpl.PostedTransaction> posted = postChunk(run, 0, 9);
+
+        // Only the ACTIVE USD wallet in range that can cover the fee
+        assertEquals(1, posted.size());
+        BulkPostingServiceImpl.PostedTransaction transaction = posted.get(0);
+        assertEquals(1L, transaction.getWalletId());
+        assertEquals("fee-1:1", transaction.getReferenceId());
+        assertAmount("5", transaction.getAmount());
+        assertAmount("95", transaction.getBalanceAfter());
+
+        assertAmount("95", balance("wallets", 1L));
+        assertEquals(1L, jdbcTemplate.queryForObject("SELECT version FROM wallets WHERE id = 1", Long.class));
+        assertAmount("3", balance("wallets", 2L));
+        assertAmount("100", balance("wallets", 3L));
+        assertAmount("100", balance("wallets", 4L));
+        assertAmount("50", balance("wallets_cold", 12L));
+        assertAmount("20", balance("wallets", 15L));
+
+        Map<String, Object> ledger = jdbcTemplate.queryForMap(
+                "SELECT * FROM wallet_transactions WHERE reference_id = 'fee-1:1'");
+        assertEquals(transaction.getTransactionId(), ((Number) ledger.get("id")).longValue());
+        assertEquals("DEBIT", ledger.get("transaction_type"));
+        assertEquals("Monthly fee", ledger.get("description"));
+        assertEquals("USD", ledger.get("currency"));
+        assertEquals("SUCCESS", ledger.get("status"));
+        assertAmount("100", (BigDecimal) ledger.get("balance_before"));
+        assertEquals(LocalDate.now(), ((Timestamp) ledger.get("created_at")).toLocalDateTime().toLocalDate());
+
+        long[] key = IdempotencyServiceImpl.hash("fee-1:1");
+        Map<String, Object> idempotencyKey = jdbcTemplate.queryForMap(
+                "SELECT bucket, transaction_id FROM idempotency_keys WHERE key_high = ? AND key_low = ?", key[0], key[1]);
+        assertEquals(IdempotencyServiceImpl.currentBucket(), ((Number) idempotencyKey.get("bucket")).intValue());
+        assertEquals(transaction.getTransactionId(), ((Number) idempotencyKey.get("transaction_id")).longValue());
+
+        Map<String, Object> aggregate = jdbcTemplate.queryForMap(
+                "SELECT * FROM wallet_daily_aggregates WHERE wallet_id = 1 AND aggregate_date = ?", LocalDate.now());
+        assertAmount("5", (BigDecimal) aggregate.get("debit_total"));
+        assertAmount("0", (BigDecimal) aggregate.get("credit_total"));
+        assertEquals(1L, ((Number) aggregate.get("debit_count")).longValue());
+        assertAmount("95", (BigDecimal) aggregate.get("min_balance"));
+        assertAmount("100", (BigDecimal) aggregate.get("max_balance"));
+
+        Map<String, Object> checkpoint = jdbcTemplate.queryForMap(
+                "SELECT chunk_end, posted_count FROM posting_run_chunks WHERE run_id = 'fee-1' AND chunk_start = 0");
+        assertEquals(9L, ((Number) checkpoint.get("chunk_end")).longValue());
+        assertEquals(1L, ((Number) checkpoint.get("posted_count")).longValue());
+    }
+
+    @Test
+    void rerunningAChunkPostsNothing() {
+        PostingRun run = feeRun("fee-2");
+        assertEquals(1, postChunk(run, 0, 9).size());
+
+        assertTrue(postChunk(run, 0, 9).isEmpty());
+
+        assertAmount("95", balance("wallets", 1L));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM wallet_transactions", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM idempotency_keys", Integer.class));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT debit_count FROM wallet_daily_aggregates WHERE wallet_id = 1", Long.class));
+    }
+
+    @Test
+    void walletWhoseReferenceIsAlreadyKeyedIsSkipped() {
+        PostingRun run = feeRun("fee-3");
+        long[] key = IdempotencyServiceImpl.hash("fee-3:1");
+        jdbcTemplate.update("INSERT INTO idempotency_keys (key_high, key_low, bucket, transaction_id, created_at) " +
+                "VALUES (?, ?, ?, 42, now())", key[0], key[1], IdempotencyServiceImpl.currentBucket() - 1);
+
+        List<BulkPostingServiceImpl.PostedTransaction> posted = postChunk(run, 10, 19);
+        assertEquals(2, posted.size());
+        assertTrue(postChunk(feeRun("fee-3"), 0, 9).isEmpty());
+
+        assertAmount("100", balance("wallets", 1L));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM wallet_transactions WHERE reference_id = 'fee-3:1'", Integer.class));
+    }
+
+    @Test
+    void resumedRunSkipsCheckpointedChunksAndAuditsAfterCommit() {
+        PostingRun run = PostingRun.builder()
+                .runId("interest-1")
+                .postingType(PostingRun.PostingType.INTEREST)
+                .currency("USD")
+                .rate(new BigDecimal("0.01"))
+                .description("Monthly interest")
+                .status(PostingRun.PostingStatus.RUNNING)
+                .build();
+        when(runRepository.findById("interest-1")).thenReturn(Optional.of(run));
+
+        // The first attempt stopped after chunk [0, 9]; a wallet opened since then must not be swept into it
+        assertEquals(2, postChunk(run, 0, 9).size());
+        insertWallet("wallets", 5L, "100", "USD", "ACTIVE");
+
+        doAnswer(invocation -> {
+            // Read on a separate connection, so this only sees the row once the chunk has committed
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM wallet_transactions WHERE reference_id = ?", Integer.class,
+                    invocation.<String>getArgument(3)));
+            return null;
+        }).when(auditLogger).moneyMovement(any(), anyLong(), anyLong(), anyString(), any(), any());
+
+        service.executeRun(run);
+
+        assertEquals(PostingRun.PostingStatus.COMPLETED, run.getStatus(), run.getErrorMessage());
+        assertAmount("101", balance("wallets", 1L));
+        assertAmount("3.03", balance("wallets", 2L));
+        assertAmount("100", balance("wallets", 5L));
+        assertAmount("50.5", balance("wallets_cold", 12L));
+        assertAmount("20.2", balance("wallets", 15L));
+
+        verify(auditLogger).moneyMovement(eq(AuditEvent.CREDIT_POSTED), eq(12L), anyLong(), eq("interest-1:12"),
+                argThat(amount -> amount.compareTo(new BigDecimal("0.5")) == 0),
+                argThat(balance -> balance.compareTo(new BigDecimal("50.5")) == 0));
+        verify(auditLogger).moneyMovement(eq(AuditEvent.CREDIT_POSTED), eq(15L), anyLong(), eq("interest-1:15"),
+                argThat(amount -> amount.compareTo(new BigDecimal("0.2")) == 0),
+                argThat(balance -> balance.compareTo(new BigDecimal("20.2")) == 0));
+        verifyNoMoreInteractions(auditLogger);
+    }
+
+    private List<BulkPostingServiceImpl.PostedTransaction> postChunk(PostingRun run, long chunkStart, long chunkEnd) {
+        return transactionTemplate.execute(status -> service.postChunk(run, chunkStart, chunkEnd));
+    }
+
+    private static PostingRun feeRun(String runId) {
+        return PostingRun.builder()
+                .runId(runId)
+                .postingType(PostingRun.PostingType.FEE)
+                .currency("USD")
+                .amount(new BigDecimal("5"))
+                .description("Monthly fee")
+                .status(PostingRun.PostingStatus.RUNNING)
+                .build();
+    }
+
+    private static void insertWallet(String table, long id, String balance, String currency, String status) {
+        jdbcTemplate.update("INSERT INTO " + table + " (id, user_id, balance, currency, status, version) " +
+                "VALUES (?, ?, ?, ?, ?, 0)", id, "user-" + id, new BigDecimal(balance), currency, status);
+    }
+
+    private static BigDecimal balance(String table, long id) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM " + table + " WHERE id = ?", BigDecimal.class, id);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,67 @@
+package service.impl;
+
+import config.IdempotencyProperties;
+import entity.WalletTransaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import repository.IdempotencyKeyRepository;
+import repository.WalletTransactionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceImplTest {
+
+    private static final String REFERENCE = "ref-1";
+
+    private final IdempotencyKeyRepository keyRepository = mock(IdempotencyKeyRepository.class);
+    private final WalletTransactionRepository transactionRepository = mock(WalletTransactionRepository.class);
+    private final IdempotencyServiceImpl service = new IdempotencyServiceImpl(
+            keyRepository, transactionRepository, mock(JdbcTemplate.class), new IdempotencyProperties());
+
+    @Test
+    void retryWithoutRequestedAtFallsBackToTheLedgerAfterTheKeyExpired() {
+        WalletTransaction original = transaction(7L);
+        when(transactionRepository.findByReferenceId(REFERENCE)).thenReturn(Optional.of(original));
+
+        assertSame(original, service.findExisting(REFERENCE, null).orElseThrow());
+    }
+
+    @Test
+    void retainedKeyIsAnsweredFromTheStore() {
+        long[] key = IdempotencyServiceImpl.hash(REFERENCE);
+        WalletTransaction original = transaction(7L);
+        when(keyRepository.findTransactionId(eq(key[0]), eq(key[1]), anyInt(), anyInt())).thenReturn(Optional.of(7L));
+        when(transactionRepository.findById(7L)).thenReturn(Optional.of(original));
+
+        assertSame(original, service.findExisting(REFERENCE, null).orElseThrow());
+        verify(transactionRepository, never()).findByReferenceId(anyString());
+    }
+
+    @Test
+    void recentRequestedAtSkipsTheLedgerOnAMiss() {
+        assertTrue(service.findExisting(REFERENCE, Instant.now()).isEmpty());
+
+        verify(transactionRepository, never()).findByReferenceId(anyString());
+    }
+
+    @Test
+    void requestedAtBeforeTheRetentionWindowGoesStraightToTheLedger() {
+        WalletTransaction original = transaction(7L);
+        when(transactionRepository.findByReferenceId(REFERENCE)).thenReturn(Optional.of(original));
+
+        assertSame(original, service.findExisting(REFERENCE, Instant.now().minus(Duration.ofDays(30))).orElseThrow());
+        verifyNoInteractions(keyRepository);
+    }
+
+    private static WalletTransaction transaction(long id) {
+        return WalletTransaction.builder()
+                .id(id)
+                .referenceId(REFERENCE)
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package service.impl;
+
+import audit.AuditLogger;
+import config.IdempotencyProperties;
+import config.JournalProperties;
+import dto.TransactionRequest;
+import dto.TransactionResponse;
+import entity.Wallet;
+import entity.WalletTransaction;
+import journal.CreditJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import repository.IdempotencyKeyRepository;
+import repository.JournalDeadLetterRepository;
+import repository.WalletRepository;
+import repository.WalletTransactionRepository;
+import service.WalletAggregateService;
+import velocity.VelocityLimiter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Replays the credit journal through the real credit path and referenceId idempotency check, with the
+ * repositories backed by in-memory maps.
+ */
+class JournalingWalletServiceTest {
+
+    private static final long SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final Map<Long, Wallet> wallets = new HashMap<>();
+    private final Map<Long, WalletTransaction> ledger = new HashMap<>();
+    private final Map<String, Long> idempotencyKeys = new HashMap<>();
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final JournalDeadLetterRepository deadLetterRepository = mock(JournalDeadLetterRepository.class);
+    private WalletServiceImpl walletService;
+
+    @BeforeEach
+    void setUp() {
+        WalletRepository walletRepository = mock(WalletRepository.class);
+        when(walletRepository.findByIdWithLock(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(wallets.get(invocation.<Long>getArgument(0))));
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WalletTransactionRepository transactionRepository = mock(WalletTransactionRepository.class);
+        when(transactionRepository.save(any(WalletTransaction.class))).thenAnswer(invocation -> {
+            WalletTransaction transaction = invocation.getArgument(0);
+            transaction.setId(ledger.size() + 1L);
+            ledger.put(transaction.getId(), transaction);
+            return transaction;
+        });
+        when(transactionRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(ledger.get(invocation.<Long>getArgument(0))));
+
+        IdempotencyKeyRepository keyRepository = mock(IdempotencyKeyRepository.class);
+        when(keyRepository.findTransactionId(anyLong(), anyLong(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(idempotencyKeys.get(
+                        invocation.getArgument(0) + ":" + invocation.getArgument(1))));
+        when(keyRepository.insertIfAbsent(anyLong(), anyLong(), anyInt(), anyInt(), anyLong()))
+                .thenAnswer(invocation -> idempotencyKeys.putIfAbsent(
+                        invocation.getArgument(0) + ":" + invocation.getArgument(1),
+                        invocation.getArgument(4)) == null ? 1 : 0);
+
+        IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(
+                keyRepository, transactionRepository, jdbcTemplate, new IdempotencyProperties());
+
+        walletService = new WalletServiceImpl(walletRepository, transactionRepository,
+                mock(WalletAggregateService.class), idempotencyService, mock(AuditLogger.class),
+                mock(VelocityLimiter.class));
+
+        wallets.put(1L, wallet(1L));
+        wallets.put(2L, wallet(2L));
+    }
+
+    @Test
+    void replayAfterCrashBeforeCheckpointDoesNotDuplicateCredits() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(1L, new BigDecimal("5"), "ref-1", null);
+            journal.append(1L, new BigDecimal("7"), "ref-2", null);
+            // Client retried while the database was down
+            journal.append(1L, new BigDecimal("7"), "ref-2", null);
+            journal.append(2L, new BigDecimal("9"), "ref-3", null);
+        }
+
+        try (CreditJournal journal = open()) {
+            service(journal).replayJournal();
+            assertEquals(0, journal.pendingCount());
+        }
+
+        // Crash after the credits were applied but before the checkpoint was persisted
+        Files.delete(directory.resolve("checkpoint"));
+
+        try (CreditJournal journal = open()) {
+            assertEquals(4, journal.pendingCount());
+            service(journal).replayJournal();
+            assertEquals(0, journal.pendingCount());
+        }
+
+        assertEquals(3, ledger.size());
+        assertEquals(List.of("ref-1", "ref-2", "ref-3"),
+                ledger.values().stream().map(WalletTransaction::getReferenceId).sorted().toList());
+        assertEquals(0, new BigDecimal("12").compareTo(wallets.get(1L).getBalance()));
+        assertEquals(0, new BigDecimal("9").compareTo(wallets.get(2L).getBalance()));
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    void rejectedEntryIsDeadLetteredAndReplayContinues() throws IOException {
+        try (CreditJournal journal = open()) {
+            journal.append(99L, new BigDecimal("3"), "ref-missing", "unknown wallet");
+            journal.append(1L, new BigDecimal("4"), "ref-ok", null);
+
+            service(journal).replayJournal();
+
+            assertEquals(0, journal.pendingCount());
+        }
+
+        verify(deadLetterRepository).insert(eq(1L), eq(99L), argThat(amount -> amount.compareTo(new BigDecimal("3")) == 0),
+                eq("ref-missing"), eq("unknown wallet"), any(), contains("99"));
+        assertEquals(0, new BigDecimal("4").compareTo(wallets.get(1L).getBalance()));
+    }
+
+    @Test
+    void slowProbeSwitchesCreditsToTheJournal() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // The probe waits as if for a pool connection that never comes
+        when(jdbcTemplate.queryForObject("SELECT 1", Integer.class)).thenAnswer(invocation -> {
+            release.await();
+            return 1;
+        });
+
+        try (CreditJournal journal = open()) {
+            JournalingWalletService service = service(journal);
+            service.probeDatabase();
+
+            TransactionResponse response = service.creditWallet(1L, credit("ref-slow"));
+
+            assertEquals(WalletTransaction.TransactionStatus.PENDING.name(), response.getStatus());
+            assertEquals(1, journal.pendingCount());
+            assertTrue(ledger.isEmpty());
+            release.countDown();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void failedProbeSwitchesCreditsAndReplayRecovers() throws Exception {
+        when(jdbcTemplate.queryForObject("SELECT 1", Integer.class))
+                .thenThrow(new CannotGetJdbcConnectionException("connection refused"))
+                .thenReturn(1);
+
+        try (CreditJournal journal = open()) {
+            JournalingWalletService service = service(journal);
+            service.probeDatabase();
+            service.creditWallet(1L, credit("ref-down"));
+            assertEquals(1, journal.pendingCount());
+
+            service.replayJournal();
+
+            assertEquals(0, journal.pendingCount());
+            assertEquals(WalletTransaction.TransactionStatus.SUCCESS.name(),
+                    service.creditWallet(1L, credit("ref-up")).getStatus());
+            service.shutdown();
+        }
+        assertEquals(2, ledger.size());
+    }
+
+    @Test
+    void healthyProbeKeepsCreditsOnTheDatabase() throws Exception {
+        when(jdbcTemplate.queryForObject("SELECT 1", Integer.class)).thenReturn(1);
+
+        try (CreditJournal journal = open()) {
+            JournalingWalletService service = service(journal);
+            service.probeDatabase();
+
+            service.creditWallet(1L, credit("ref-ok"));
+
+            assertEquals(0, journal.pendingCount());
+            service.shutdown();
+        }
+        assertEquals(1, ledger.size());
+    }
+
+    @Test
+    void failedDeadLetterWriteStopsReplayForRetry() throws IOException {
+        when(deadLetterRepository.insert(anyLong(), anyLong(), any(), anyString(), any(), any(), anyString()))
+                .thenThrow(new IllegalStateException("database went away"));
+
+        try (CreditJournal journal = open()) {
+            journal.append(99L, new BigDecimal("3"), "ref-missing", null);
+            journal.append(1L, new BigDecimal("4"), "ref-ok", null);
+
+            service(journal).replayJournal();
+
+            assertEquals(2, journal.pendingCount());
+        }
+
+        assertTrue(ledger.isEmpty());
+    }
+
+    private JournalingWalletService service(CreditJournal journal) {
+        JournalProperties properties = new JournalProperties();
+        properties.setProbeTimeoutMs(100);
+        return new JournalingWalletService(walletService, journal, jdbcTemplate, deadLetterRepository, properties);
+    }
+
+    private static TransactionRequest credit(String referenceId) {
+        return TransactionRequest.builder()
+                .referenceId(referenceId)
+                .amount(new BigDecimal("5"))
+                .build();
+    }
+
+    private CreditJournal open() throws IOException {
+        return new CreditJournal(directory, SEGMENT_SIZE, 0);
+    }
+
+    private static Wallet wallet(long id) {
+        return Wallet.builder()
+                .id(id)
+                .userId("user-" + id)
+                .balance(BigDecimal.ZERO)
+                .currency("USD")
+                .status(Wallet.WalletStatus.ACTIVE)
+                .version(0L)
+                .build();
+    }
+}
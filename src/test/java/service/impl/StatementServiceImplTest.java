@@ -0,0 +1,186 @@
+package service.impl;
+
+import dto.BalanceAtResponse;
+import entity.Wallet;
+import exception.WalletNotFoundException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import repository.WalletRepository;
+import repository.WalletTransactionRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads point-in-time balances and statements from ledger rows written straight to Postgres, so every row
+ * carries the exact timestamp and id the test needs.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.datasource.hikari.minimum-idle=1",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class StatementServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+    private static final LocalDateTime NOON = DAY.atTime(12, 0);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StatementServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StatementServiceImpl(walletRepository, transactionRepository, entityManager);
+        wallet(1L);
+        wallet(2L);
+    }
+
+    @Test
+    void balanceAtIncludesRowsWrittenAtExactlyThatInstant() {
+        transaction(1L, 1L, "CREDIT", "10", "10", NOON.minusHours(1), "ref-1", null);
+        // Same timestamp: the higher id was applied last
+        transaction(3L, 1L, "DEBIT", "5", "20", NOON, "ref-3", null);
+        transaction(2L, 1L, "CREDIT", "15", "25", NOON, "ref-2", null);
+
+        BalanceAtResponse atNoon = service.getBalanceAt(1L, NOON);
+        assertAmount("20", atNoon.getBalance());
+        assertEquals(3L, atNoon.getLastTransactionId());
+        assertEquals(NOON, atNoon.getLastTransactionAt());
+        assertEquals("USD", atNoon.getCurrency());
+
+        BalanceAtResponse justBefore = service.getBalanceAt(1L, NOON.minusNanos(1000));
+        assertAmount("10", justBefore.getBalance());
+        assertEquals(1L, justBefore.getLastTransactionId());
+    }
+
+    @Test
+    void walletWithoutHistoryHasZeroBalance() {
+        transaction(1L, 2L, "CREDIT", "10", "10", NOON, "ref-1", null);
+
+        BalanceAtResponse response = service.getBalanceAt(1L, NOON.plusDays(1));
+
+        assertAmount("0", response.getBalance());
+        assertNull(response.getLastTransactionId());
+        assertNull(response.getLastTransactionAt());
+        assertThrows(WalletNotFoundException.class, () -> service.getBalanceAt(99L, NOON));
+    }
+
+    @Test
+    void statementOpensFromTheLastRowBeforeThePeriodAndOrdersTiesById() {
+        transaction(1L, 1L, "CREDIT", "100", "100", DAY.minusDays(1).atTime(23, 59, 59), "ref-1", null);
+        transaction(2L, 1L, "CREDIT", "50", "150", DAY.atStartOfDay(), "ref,2", "Top-up, \"bonus\"");
+        transaction(4L, 1L, "CREDIT", "5", "125", NOON, "ref-4", "line one\nline two");
+        transaction(3L, 1L, "DEBIT", "30", "120", NOON, "ref-3", "Coffee");
+        // Outside the period or the wallet
+        transaction(5L, 1L, "DEBIT", "1", "124", DAY.plusDays(1).atStartOfDay(), "ref-5", null);
+        transaction(6L, 2L, "CREDIT", "9", "9", NOON, "ref-6", null);
+
+        assertEquals("""
+                walletId,1
+                currency,USD
+                periodFrom,2026-03-10
+                periodTo,2026-03-10
+                openingBalance,100.0000
+
+                transactionId,createdAt,referenceId,type,amount,balanceAfter,description
+                2,2026-03-10T00:00,"ref,2",CREDIT,50.0000,150.0000,"Top-up, ""bonus\"""
+                3,2026-03-10T12:00,ref-3,DEBIT,30.0000,120.0000,Coffee
+                4,2026-03-10T12:00,ref-4,CREDIT,5.0000,125.0000,"line one
+                line two"
+
+                totalCredits,55.0000
+                totalDebits,30.0000
+                closingBalance,125.0000
+                """, statement(1L, DAY, DAY));
+    }
+
+    @Test
+    void emptyPeriodClosesAtTheOpeningBalance() {
+        transaction(1L, 1L, "CREDIT", "100", "100", DAY.minusDays(3).atTime(8, 0), "ref-1", null);
+
+        String statement = statement(1L, DAY.minusDays(1), DAY);
+
+        assertTrue(statement.contains("openingBalance,100.0000\n"), statement);
+        assertTrue(statement.endsWith("""
+                totalCredits,0
+                totalDebits,0
+                closingBalance,100.0000
+                """), statement);
+    }
+
+    private String statement(Long walletId, LocalDate from, LocalDate to) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.writeStatement(walletId, from, to, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private void wallet(long id) {
+        jdbcTemplate.update("INSERT INTO wallets (id, user_id, balance, currency, status, version, created_at) "
+                + "VALUES (?, ?, 0, 'USD', 'ACTIVE', 0, ?)", id, "user-" + id, DAY.minusDays(30).atStartOfDay());
+    }
+
+    private void transaction(long id, long walletId, String type, String amount, String balanceAfter,
+                             LocalDateTime createdAt, String referenceId, String description) {
+        BigDecimal delta = "CREDIT".equals(type) ? new BigDecimal(amount) : new BigDecimal(amount).negate();
+        jdbcTemplate.update("INSERT INTO wallet_transactions (id, wallet_id, reference_id, transaction_type, amount, "
+                        + "balance_before, balance_after, currency, description, status, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, 'USD', ?, 'SUCCESS', ?)",
+                id, walletId, referenceId, type, new BigDecimal(amount),
+                new BigDecimal(balanceAfter).subtract(delta), new BigDecimal(balanceAfter), description, createdAt);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
+    }
+
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Wallet.class)
+    @EnableJpaRepositories(basePackageClasses = WalletRepository.class, includeFilters =
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                    classes = {WalletRepository.class, WalletTransactionRepository.class}))
+    static class Config {
+    }
+}
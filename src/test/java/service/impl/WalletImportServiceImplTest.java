@@ -0,0 +1,196 @@
+package service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.WalletImportProperties;
+import dto.WalletImportResponse;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import service.WalletImportService.ImportFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs imports end to end against a real Postgres and checks both the counters and the per-row result file.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class WalletImportServiceImplTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String SCHEMA = """
+            CREATE TABLE wallets (
+                id bigserial PRIMARY KEY, user_id varchar(255) NOT NULL UNIQUE, balance numeric(19, 4) NOT NULL,
+                currency varchar(3) NOT NULL, status varchar(20) NOT NULL, version bigint NOT NULL,
+                created_at timestamp NOT NULL, updated_at timestamp
+            );
+            CREATE TABLE wallet_user_ids (
+                user_id varchar(255) PRIMARY KEY, created_at timestamp NOT NULL
+            );
+            """;
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+    private static ValidatorFactory validatorFactory;
+
+    @TempDir
+    Path resultDir;
+
+    private final WalletImportProperties properties = new WalletImportProperties();
+    private WalletImportServiceImpl service;
+
+    @BeforeAll
+    static void createSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        jdbcTemplate.execute(SCHEMA);
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE wallets, wallet_user_ids");
+        properties.setResultDir(resultDir.toString());
+        service = new WalletImportServiceImpl(jdbcTemplate, transactionManager, validatorFactory.getValidator(),
+                new ObjectMapper(), properties);
+    }
+
+    @Test
+    void csvImportSkipsHeaderAndBlankLines() throws IOException {
+        WalletImportResponse response = importCsv("""
+                userId,currency
+                alice,USD
+
+                bob , EUR
+                """);
+
+        assertCounts(response, 2, 2, 0, 0);
+        assertEquals("USD", currency("alice"));
+        assertEquals("EUR", currency("bob"));
+        assertEquals(List.of("line,userId,status,message", "2,alice,CREATED,", "4,bob,CREATED,"), results(response));
+    }
+
+    @Test
+    void ndjsonImportReportsMalformedLines() throws IOException {
+        WalletImportResponse response = service.importWallets(input("""
+                {"userId":"carol","currency":"GBP"}
+                {"userId":"dave",
+                {"userId":"erin","currency":"JPY"}
+                """), ImportFormat.NDJSON);
+
+        assertCounts(response, 3, 2, 0, 1);
+        assertEquals("GBP", currency("carol"));
+        assertEquals(List.of("line,userId,status,message", "1,carol,CREATED,", "2,,FAILED,Malformed row",
+                "3,erin,CREATED,"), results(response));
+    }
+
+    @Test
+    void invalidRowsFailWithTheirValidationMessages() throws IOException {
+        WalletImportResponse response = importCsv("""
+                frank,usd
+                ,USD
+                gina,USD,extra
+                "hal,lo",USD
+                """);
+
+        assertCounts(response, 4, 0, 0, 4);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM wallets", Integer.class));
+        assertEquals(List.of("line,userId,status,message",
+                "1,frank,FAILED,Currency must be a 3-letter ISO code",
+                "2,,FAILED,User ID is required",
+                "3,,FAILED,Malformed row",
+                "4,,FAILED,Malformed row"), results(response));
+    }
+
+    @Test
+    void existingAndArchivedUsersAreSkipped() throws IOException {
+        jdbcTemplate.update("INSERT INTO wallets (user_id, balance, currency, status, version, created_at) " +
+                "VALUES ('ivan', 7, 'USD', 'ACTIVE', 0, now())");
+        jdbcTemplate.update("INSERT INTO wallet_user_ids (user_id, created_at) VALUES ('ivan', now()), ('judy', now())");
+
+        WalletImportResponse response = importCsv("""
+                ivan,EUR
+                judy,EUR
+                kim,EUR
+                """);
+
+        assertCounts(response, 3, 1, 2, 0);
+        assertEquals("USD", currency("ivan"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM wallets WHERE user_id = 'judy'",
+                Integer.class));
+        assertEquals(List.of("line,userId,status,message",
+                "1,ivan,SKIPPED,Wallet already exists for user",
+                "2,judy,SKIPPED,Wallet already exists for user",
+                "3,kim,CREATED,"), results(response));
+    }
+
+    @Test
+    void repeatedUserIdKeepsTheFirstRow() throws IOException {
+        properties.setBatchSize(3);
+
+        WalletImportResponse response = importCsv("""
+                lee,USD
+                lee,EUR
+                mia,GBP
+                lee,JPY
+                """);
+
+        assertCounts(response, 4, 2, 2, 0);
+        assertEquals("USD", currency("lee"));
+        assertEquals(List.of("line,userId,status,message",
+                "1,lee,CREATED,",
+                "2,lee,SKIPPED,Duplicate of line 1",
+                "3,mia,CREATED,",
+                // A later batch finds the wallet the earlier one created
+                "4,lee,SKIPPED,Wallet already exists for user"), results(response));
+    }
+
+    private WalletImportResponse importCsv(String content) {
+        return service.importWallets(input(content), ImportFormat.CSV);
+    }
+
+    private static ByteArrayInputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> results(WalletImportResponse response) throws IOException {
+        return Files.readAllLines(Path.of(response.getResultFile()), StandardCharsets.UTF_8);
+    }
+
+    private static String currency(String userId) {
+        return jdbcTemplate.queryForObject("SELECT currency FROM wallets WHERE user_id = ?", String.class, userId);
+    }
+
+    private static void assertCounts(WalletImportResponse response, long total, long created, long skipped,
+                                     long failed) {
+        assertEquals(total, response.getTotalRows());
+        assertEquals(created, response.getCreatedCount());
+        assertEquals(skipped, response.getSkippedCount());
+        assertEquals(failed, response.getFailedCount());
+    }
+}
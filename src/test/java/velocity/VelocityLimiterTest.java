@@ -0,0 +1,159 @@
+package velocity;
+
+import config.VelocityLimitProperties;
+import exception.VelocityLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VelocityLimiterTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("10");
+
+    private final VelocityLimitProperties properties = new VelocityLimitProperties();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(new NoOpTransactionManager());
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setStripes(1);
+        properties.setHourlyAmount(BigDecimal.ZERO);
+        properties.setHourlyCount(1);
+        properties.setDailyAmount(BigDecimal.ZERO);
+        properties.setDailyCount(0);
+    }
+
+    @Test
+    void reservationIsReleasedWhenTheTransactionRollsBack() {
+        VelocityLimiter limiter = start();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            limiter.reserve(1L, AMOUNT).releaseOnRollback();
+            status.setRollbackOnly();
+        });
+
+        assertNotNull(limiter.reserve(1L, AMOUNT));
+    }
+
+    @Test
+    void reservationIsKeptWhenTheTransactionCommits() {
+        VelocityLimiter limiter = start();
+
+        transactionTemplate.executeWithoutResult(status -> limiter.reserve(1L, AMOUNT).releaseOnRollback());
+
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.reserve(1L, AMOUNT));
+    }
+
+    @Test
+    void settledBucketCountsDebitsOfEveryInstance() throws Exception {
+        properties.setHourlyCount(4);
+        VelocityLimiter limiter = start();
+        int bucket = VelocityLimiter.bucketOf(System.currentTimeMillis());
+        limiter.reserve(1L, AMOUNT);
+
+        // The ledger holds this instance's debit and two from other instances
+        ledger(ledgerRow(1L), ledgerRow(1L), ledgerRow(1L));
+        limiter.settle(bucket);
+
+        assertNotNull(limiter.reserve(1L, AMOUNT));
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.reserve(1L, AMOUNT));
+    }
+
+    @Test
+    void settledBucketDropsReservationsThatNeverCommitted() throws Exception {
+        properties.setHourlyCount(2);
+        VelocityLimiter limiter = start();
+        int bucket = VelocityLimiter.bucketOf(System.currentTimeMillis());
+        limiter.reserve(1L, AMOUNT);
+        limiter.reserve(1L, AMOUNT);
+
+        ledger(ledgerRow(1L));
+        limiter.settle(bucket);
+
+        assertNotNull(limiter.reserve(1L, AMOUNT));
+    }
+
+    @Test
+    void releaseAfterSettleLeavesTheLedgerCount() throws Exception {
+        VelocityLimiter limiter = start();
+        int bucket = VelocityLimiter.bucketOf(System.currentTimeMillis());
+        VelocityLimiter.Reservation reservation = limiter.reserve(1L, AMOUNT);
+
+        ledger(ledgerRow(1L));
+        limiter.settle(bucket);
+        reservation.release();
+
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.reserve(1L, AMOUNT));
+    }
+
+    @Test
+    void rebuiltDebitsCountAgainstTheLimit() throws Exception {
+        properties.setHourlyCount(3);
+        ledger(ledgerRow(1L), ledgerRow(1L));
+        VelocityLimiter limiter = start();
+
+        assertNotNull(limiter.reserve(1L, AMOUNT));
+        assertThrows(VelocityLimitExceededException.class, () -> limiter.reserve(1L, AMOUNT));
+    }
+
+    private void ledger(ResultSet... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet ledgerRow(long walletId) throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(walletId);
+        when(row.getBigDecimal(2)).thenReturn(AMOUNT);
+        when(row.getTimestamp(3)).thenReturn(Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)));
+        return row;
+    }
+
+    private VelocityLimiter start() {
+        VelocityLimiter limiter = new VelocityLimiter(properties, jdbcTemplate, new SimpleMeterRegistry());
+        limiter.start();
+        return limiter;
+    }
+
+    // Drives the real synchronization callbacks without a database
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityTableTest {
+
+    private static final long AMOUNT_LIMIT = 1_000_0000L;
+    private static final int COUNT_LIMIT = 3;
+    private static final int START = 5_000_000;
+
+    private final VelocityTable table = new VelocityTable(0);
+
+    @Test
+    void rejectsDebitOverHourlyCount() {
+        for (int i = 0; i < COUNT_LIMIT; i++) {
+            assertNull(hourly(1L, START, 1_0000L));
+        }
+
+        assertEquals(VelocityLimit.HOURLY_COUNT, hourly(1L, START, 1_0000L));
+        assertNull(hourly(2L, START, 1_0000L));
+    }
+
+    @Test
+    void rejectedDebitIsNotRecorded() {
+        assertNull(hourly(1L, START, 900_0000L));
+        assertEquals(VelocityLimit.HOURLY_AMOUNT, hourly(1L, START, 200_0000L));
+
+        assertNull(hourly(1L, START, 100_0000L));
+    }
+
+    @Test
+    void hourlyWindowSlidesButDailyWindowStillCounts() {
+        assertNull(table.tryAdd(1L, START, 900_0000L, AMOUNT_LIMIT, 0, 2 * AMOUNT_LIMIT, 0));
+
+        int nextHour = START + VelocityTable.HOUR_SLOTS;
+        assertNull(table.tryAdd(1L, nextHour, 900_0000L, AMOUNT_LIMIT, 0, 2 * AMOUNT_LIMIT, 0));
+        assertEquals(VelocityLimit.DAILY_AMOUNT,
+                table.tryAdd(1L, nextHour + 1, 300_0000L, 0, 0, 2 * AMOUNT_LIMIT, 0));
+    }
+
+    @Test
+    void dailyWindowExpiresAfterADay() {
+        assertNull(table.tryAdd(1L, START, AMOUNT_LIMIT, 0, 0, AMOUNT_LIMIT, 0));
+        assertEquals(VelocityLimit.DAILY_AMOUNT, table.tryAdd(1L, START + 1, 1L, 0, 0, AMOUNT_LIMIT, 0));
+
+        int nextDay = START + VelocityTable.DAY_SLOTS * VelocityTable.BUCKETS_PER_HOUR;
+        assertNull(table.tryAdd(1L, nextDay, AMOUNT_LIMIT, 0, 0, AMOUNT_LIMIT, 0));
+    }
+
+    @Test
+    void releaseUndoesReservation() {
+        assertNull(hourly(1L, START, 600_0000L));
+        table.add(1L, START, -600_0000L, -1);
+
+        assertNull(hourly(1L, START + 1, 1_000_0000L));
+    }
+
+    @Test
+    void clearedBucketLeavesBothWindowsWithoutIt() {
+        table.tryAdd(1L, START, 600_0000L, AMOUNT_LIMIT, 0, AMOUNT_LIMIT, 0);
+        table.tryAdd(1L, START + 1, 300_0000L, AMOUNT_LIMIT, 0, AMOUNT_LIMIT, 0);
+
+        table.clearBucket(START);
+        // A bucket the wallet has not reached yet is left alone
+        table.clearBucket(START + 2);
+
+        assertNull(table.tryAdd(1L, START + 1, 700_0000L, AMOUNT_LIMIT, 0, AMOUNT_LIMIT, 0));
+        assertEquals(VelocityLimit.DAILY_AMOUNT, table.tryAdd(1L, START + 2, 1L, 0, 0, AMOUNT_LIMIT, 0));
+    }
+
+    @Test
+    void rebuiltHistoryCountsOutOfOrderEvents() {
+        table.add(1L, START, 400_0000L, 1);
+        table.add(1L, START - 3, 400_0000L, 1);
+        table.add(1L, START - VelocityTable.HOUR_SLOTS, 400_0000L, 1);
+
+        assertEquals(VelocityLimit.HOURLY_AMOUNT, hourly(1L, START, 300_0000L));
+        assertNull(hourly(1L, START, 200_0000L));
+    }
+
+    @Test
+    void growsAndEvictsIdleWallets() {
+        for (long walletId = 1; walletId <= 10_000; walletId++) {
+            assertNull(hourly(walletId, walletId <= 5_000 ? START : START + 400, 1_0000L));
+        }
+        assertEquals(10_000, table.size());
+
+        assertEquals(5_000, table.evictIdle(START + 400));
+        assertEquals(5_000, table.size());
+
+        for (int i = 1; i < COUNT_LIMIT; i++) {
+            assertNull(hourly(9_999L, START + 400, 1_0000L));
+        }
+        assertEquals(VelocityLimit.HOURLY_COUNT, hourly(9_999L, START + 400, 1_0000L));
+    }
+
+    private VelocityLimit hourly(long walletId, int bucket, long amount) {
+        return table.tryAdd(walletId, bucket, amount, AMOUNT_LIMIT, COUNT_LIMIT, 0, 0);
+    }
+}